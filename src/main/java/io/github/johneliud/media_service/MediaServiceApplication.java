@@ -2,12 +2,16 @@ package io.github.johneliud.media_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class MediaServiceApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(MediaServiceApplication.class, args);
+		SpringApplication application = new SpringApplication(MediaServiceApplication.class);
+		// Records startup steps for the startup report and the actuator startup endpoint
+		application.setApplicationStartup(new BufferingApplicationStartup(4096));
+		application.run(args);
 	}
 
 }
@@ -0,0 +1,52 @@
+package io.github.johneliud.media_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import tools.jackson.core.JacksonException;
+
+import java.util.List;
+
+@Configuration
+public class KafkaRetryConfig {
+
+    public static final List<String> RETRYABLE_TOPICS = List.of("order-placed", "order-status-changed", "product-deleted");
+
+    @Value("${media.kafka.retry.attempts:4}")
+    private int attempts;
+
+    @Value("${media.kafka.retry.initial-delay-ms:1000}")
+    private long initialDelayMs;
+
+    @Value("${media.kafka.retry.multiplier:4.0}")
+    private double multiplier;
+
+    @Value("${media.kafka.retry.max-delay-ms:60000}")
+    private long maxDelayMs;
+
+    @Value("${media.kafka.retry.auto-create-topics:true}")
+    private boolean autoCreateTopics;
+
+    // Failed records move to {topic}-retry-N topics and finally {topic}-dlt, so the main
+    // partitions keep flowing instead of blocking on a failing record
+    @Bean
+    public RetryTopicConfiguration consumerRetryTopics(KafkaTemplate<String, String> kafkaTemplate) {
+        RetryTopicConfigurationBuilder builder = RetryTopicConfigurationBuilder.newInstance()
+                .includeTopics(RETRYABLE_TOPICS)
+                .maxAttempts(attempts)
+                .exponentialBackoff(initialDelayMs, multiplier, maxDelayMs)
+                .suffixTopicsWithIndexValues()
+                // Malformed payloads fail the same way every time: straight to the dead-letter topic
+                .notRetryOn(List.of(JacksonException.class, DeserializationException.class))
+                .traversingCauses()
+                .dltHandlerMethod("deadLetterService", "handleDeadLetter");
+        if (!autoCreateTopics) {
+            builder.doNotAutoCreateRetryTopics();
+        }
+        return builder.create(kafkaTemplate);
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.johneliud.media_service.config;
+
+import io.github.johneliud.media_service.services.ServerTiming;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Value("${media.server-timing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${media.server-timing.sample-rate:0.0}")
+    private double sampleRate;
+
+    @Value("${media.server-timing.debug-header:X-Debug-Timing}")
+    private String debugHeader;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!shouldTime(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ServerTiming.begin();
+        try {
+            filterChain.doFilter(request, response);
+            // Bodies written through message converters get the header from ServerTimingAdvice;
+            // this covers empty responses such as 404s
+            if (!response.isCommitted() && !response.containsHeader(ServerTiming.HEADER)) {
+                response.setHeader(ServerTiming.HEADER, ServerTiming.header());
+            }
+        } finally {
+            ServerTiming.end();
+        }
+    }
+
+    private boolean shouldTime(HttpServletRequest request) {
+        if (!enabled) {
+            return false;
+        }
+        // The role is set by the gateway; anyone else asking for timings only gets them if sampled
+        if (request.getHeader(debugHeader) != null && "ADMIN".equals(request.getHeader("X-User-Role"))) {
+            return true;
+        }
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.johneliud.media_service.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+// Streams JFR jdk.VirtualThreadPinned events in-process, so a virtual thread that holds on to its carrier
+// (native frames, class initialisation, or monitors on JDKs before 24) shows up in logs and metrics
+@Component
+@Slf4j
+public class VirtualThreadPinningMonitor implements DisposableBean {
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Counter pinnedCounter;
+    private final boolean enabled;
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${media.diagnostics.pinning.enabled:${spring.threads.virtual.enabled:false}}") boolean enabled,
+                                       @Value("${media.diagnostics.pinning.threshold:PT0.02S}") Duration threshold) {
+        this.pinnedCounter = meterRegistry.counter("media.virtual_threads.pinned");
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            stream = new RecordingStream();
+            stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(EVENT, this::onPinned);
+            stream.startAsync();
+            log.info("Virtual thread pinning diagnostics enabled (threshold {})", threshold);
+        } catch (RuntimeException e) {
+            log.warn("Could not start virtual thread pinning diagnostics: {}", e.getMessage());
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        String reason = event.hasField("pinnedReason") ? event.getString("pinnedReason") : "unknown";
+        log.warn("Virtual thread pinned for {}ms ({}):\n{}", event.getDuration().toMillis(), reason,
+                format(event.getStackTrace()));
+    }
+
+    private String format(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t<no stack trace>";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(this::format)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private String format(RecordedFrame frame) {
+        return "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + "(line " + frame.getLineNumber() + ")";
+    }
+
+    @Override
+    public void destroy() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
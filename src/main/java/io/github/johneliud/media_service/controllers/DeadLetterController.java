@@ -0,0 +1,66 @@
+package io.github.johneliud.media_service.controllers;
+
+import io.github.johneliud.media_service.dto.ApiResponse;
+import io.github.johneliud.media_service.models.DeadLetter;
+import io.github.johneliud.media_service.services.DeadLetterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/media/dead-letters")
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterController {
+    private final DeadLetterService deadLetterService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<DeadLetter>>> getDeadLetters(
+            @RequestParam(required = false) String topic,
+            @RequestHeader("X-User-Role") String role) {
+
+        if (!role.equals("ADMIN")) {
+            throw new IllegalArgumentException("Only administrators can access dead letters");
+        }
+
+        List<DeadLetter> deadLetters = deadLetterService.getPendingDeadLetters(topic);
+
+        log.info("GET /api/media/dead-letters - Retrieved {} pending dead letters", deadLetters.size());
+        return ResponseEntity.ok(new ApiResponse<>(true, "Dead letters retrieved successfully", deadLetters));
+    }
+
+    @PostMapping("/{id}/replay")
+    public ResponseEntity<ApiResponse<DeadLetter>> replayDeadLetter(
+            @PathVariable String id,
+            @RequestHeader("X-User-Role") String role) {
+
+        if (!role.equals("ADMIN")) {
+            throw new IllegalArgumentException("Only administrators can replay dead letters");
+        }
+
+        log.info("POST /api/media/dead-letters/{}/replay - Replay request", id);
+
+        DeadLetter deadLetter = deadLetterService.replay(id);
+
+        return ResponseEntity.ok(new ApiResponse<>(true, "Dead letter replayed successfully", deadLetter));
+    }
+
+    @PostMapping("/replay")
+    public ResponseEntity<ApiResponse<Integer>> replayDeadLetters(
+            @RequestParam(required = false) String topic,
+            @RequestHeader("X-User-Role") String role) {
+
+        if (!role.equals("ADMIN")) {
+            throw new IllegalArgumentException("Only administrators can replay dead letters");
+        }
+
+        log.info("POST /api/media/dead-letters/replay - Replay request for topic: {}", topic);
+
+        int replayed = deadLetterService.replayAll(topic);
+
+        return ResponseEntity.ok(new ApiResponse<>(true, "Dead letters replayed successfully", replayed));
+    }
+}
@@ -1,13 +1,25 @@
 package io.github.johneliud.media_service.controllers;
 
 import io.github.johneliud.media_service.dto.ApiResponse;
+import io.github.johneliud.media_service.dto.DuplicateGroup;
 import io.github.johneliud.media_service.dto.MediaResponse;
+import io.github.johneliud.media_service.dto.StorageUsageResponse;
+import io.github.johneliud.media_service.services.DuplicateDetectionService;
 import io.github.johneliud.media_service.services.FileStorageService;
 import io.github.johneliud.media_service.services.MediaService;
+import io.github.johneliud.media_service.services.MediaTieringService;
+import io.github.johneliud.media_service.services.MediaVariantService;
+import io.github.johneliud.media_service.services.PopularityTracker;
+import io.github.johneliud.media_service.services.RequestLogSampler;
+import io.github.johneliud.media_service.services.ServerTiming;
+import io.github.johneliud.media_service.services.SignedUrlService;
+import io.github.johneliud.media_service.services.StorageUsageService;
+import io.github.johneliud.media_service.services.UploadRateLimiter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -15,8 +27,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/media")
@@ -25,6 +39,38 @@ import java.util.List;
 public class MediaController {
     private final MediaService mediaService;
     private final FileStorageService fileStorageService;
+    private final UploadRateLimiter uploadRateLimiter;
+    private final PopularityTracker popularityTracker;
+    private final MediaVariantService mediaVariantService;
+    private final RequestLogSampler requestLogSampler;
+    private final SignedUrlService signedUrlService;
+    private final StorageUsageService storageUsageService;
+    private final MediaTieringService mediaTieringService;
+    private final DuplicateDetectionService duplicateDetectionService;
+
+    @Value("${media.serve.mode:STREAM}")
+    private ServeMode serveMode;
+
+    @Value("${media.serve.accel-prefix:/protected-media}")
+    private String accelPrefix;
+
+    @Value("${media.serve.accel-variant-prefix:/protected-variants}")
+    private String accelVariantPrefix;
+
+    @Value("${media.serve.accel-cold-prefix:/protected-cold-media}")
+    private String accelColdPrefix;
+
+    enum ServeMode {
+        STREAM(null),
+        X_ACCEL_REDIRECT("X-Accel-Redirect"),
+        X_SENDFILE("X-Sendfile");
+
+        private final String header;
+
+        ServeMode(String header) {
+            this.header = header;
+        }
+    }
 
     @PostMapping("/upload")
     public ResponseEntity<ApiResponse<MediaResponse>> uploadMedia(
@@ -39,7 +85,10 @@ public class MediaController {
         
         log.info("POST /api/media/upload - Media upload request for productId: {} by seller: {}", productId, sellerId);
         
-        MediaResponse mediaResponse = mediaService.uploadMedia(image, productId, sellerId);
+        MediaResponse mediaResponse;
+        try (UploadRateLimiter.Permit permit = uploadRateLimiter.acquireUpload(sellerId)) {
+            mediaResponse = mediaService.uploadMedia(image, productId, sellerId);
+        }
         
         log.info("POST /api/media/upload - Media uploaded successfully: {}", mediaResponse.getId());
         return ResponseEntity.status(HttpStatus.CREATED)
@@ -47,39 +96,79 @@ public class MediaController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Resource> getMedia(@PathVariable String id) {
-        log.info("GET /api/media/{} - Media retrieval request", id);
+    public ResponseEntity<Resource> getMedia(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.debug("GET /api/media/{} - Media retrieval request", id);
+        long start = System.nanoTime();
         
         MediaResponse media = mediaService.getMediaById(id);
-        Path filePath = fileStorageService.getMediaPath(media.getImagePath());
+        String contentType = determineContentType(media.getImagePath());
+        Optional<MediaVariantService.Variant> variant;
+        try (ServerTiming.Stage stage = ServerTiming.start("negotiate")) {
+            variant = mediaVariantService.negotiate(media.getImagePath(), contentType, accept);
+        }
         
-        try {
-            Resource resource = new UrlResource(filePath.toUri());
-            if (!resource.exists()) {
-                log.warn("GET /api/media/{} - File not found", id);
-                return ResponseEntity.notFound().build();
-            }
-            
-            String contentType = determineContentType(media.getImagePath());
-            
-            log.info("GET /api/media/{} - Media retrieved successfully", id);
+        if (variant.isPresent()) {
+            contentType = variant.get().contentType();
+        }
+        
+        if (serveMode != ServeMode.STREAM) {
+            // The front proxy serves the bytes; this thread only resolved and authorized the request
+            popularityTracker.record(id);
+            mediaTieringService.recordAccess(id);
+            logSampled("get-media", start, "GET /api/media/{} - Media offloaded as {} in {}ms", id, contentType);
             return ResponseEntity.ok()
                 .contentType(MediaType.parseMediaType(contentType))
                 .header(HttpHeaders.CACHE_CONTROL, "max-age=31536000")
-                .body(resource);
-        } catch (Exception e) {
-            log.error("GET /api/media/{} - Error retrieving media", id, e);
-            return ResponseEntity.internalServerError().build();
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .header(serveMode.header, offloadPath(media.getImagePath(), variant))
+                .build();
         }
+        
+        Optional<byte[]> content = variant.isPresent()
+            ? fileStorageService.loadVariant(media.getImagePath(), variant.get().extension())
+            : Optional.empty();
+        if (content.isEmpty()) {
+            content = fileStorageService.loadMedia(media.getImagePath());
+            contentType = determineContentType(media.getImagePath());
+        }
+        
+        if (content.isEmpty()) {
+            log.warn("GET /api/media/{} - File not found", id);
+            return ResponseEntity.notFound().build();
+        }
+        
+        popularityTracker.record(id);
+        mediaTieringService.recordAccess(id);
+        
+        logSampled("get-media", start, "GET /api/media/{} - Media retrieved successfully as {} in {}ms", id, contentType);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(contentType))
+            .header(HttpHeaders.CACHE_CONTROL, "max-age=31536000")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+            .body(new ByteArrayResource(content.get()));
+    }
+
+    @GetMapping("/{id}/signed-url")
+    public ResponseEntity<ApiResponse<SignedUrlService.SignedUrl>> getSignedUrl(@PathVariable String id) {
+        log.debug("GET /api/media/{}/signed-url - Signed URL request", id);
+        
+        MediaResponse media = mediaService.getMediaById(id);
+        SignedUrlService.SignedUrl signedUrl = signedUrlService.sign(media.getImagePath());
+        
+        return ResponseEntity.ok(new ApiResponse<>(true, "Signed URL created successfully", signedUrl));
     }
 
     @GetMapping("/product/{productId}")
     public ResponseEntity<ApiResponse<List<MediaResponse>>> getMediaByProduct(@PathVariable String productId) {
-        log.info("GET /api/media/product/{} - Media retrieval request", productId);
+        log.debug("GET /api/media/product/{} - Media retrieval request", productId);
+        long start = System.nanoTime();
         
         List<MediaResponse> mediaList = mediaService.getMediaByProductId(productId);
         
-        log.info("GET /api/media/product/{} - Retrieved {} media items", productId, mediaList.size());
+        logSampled("get-product-media", start, "GET /api/media/product/{} - Retrieved {} media items in {}ms",
+            productId, mediaList.size());
         return ResponseEntity.ok(new ApiResponse<>(true, "Media retrieved successfully", mediaList));
     }
 
@@ -119,6 +208,83 @@ public class MediaController {
         return ResponseEntity.ok(new ApiResponse<>(true, "Media retrieved successfully", mediaList));
     }
 
+    @GetMapping("/duplicates")
+    public ResponseEntity<ApiResponse<List<DuplicateGroup>>> getDuplicates(
+            @RequestParam(required = false) Integer maxDistance,
+            @RequestHeader("X-User-Id") String sellerId,
+            @RequestHeader("X-User-Role") String role) {
+        
+        if (!role.equals("SELLER")) {
+            throw new IllegalArgumentException("Only sellers can access this endpoint");
+        }
+        
+        log.info("GET /api/media/duplicates - Near-duplicate report for sellerId: {}", sellerId);
+        
+        List<DuplicateGroup> groups = duplicateDetectionService.findSellerDuplicates(sellerId, maxDistance);
+        
+        log.info("GET /api/media/duplicates - Found {} near-duplicate groups", groups.size());
+        return ResponseEntity.ok(new ApiResponse<>(true, "Duplicates retrieved successfully", groups));
+    }
+
+    @GetMapping("/usage")
+    public ResponseEntity<ApiResponse<StorageUsageResponse>> getStorageUsage(
+            @RequestParam(required = false) String productId,
+            @RequestParam(value = "sellerId", required = false) String requestedSellerId,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader("X-User-Role") String role) {
+        
+        String sellerId;
+        if (role.equals("ADMIN") && requestedSellerId != null) {
+            sellerId = requestedSellerId;
+        } else if (role.equals("SELLER")) {
+            sellerId = userId;
+        } else {
+            throw new IllegalArgumentException("Only sellers can access this endpoint");
+        }
+        
+        log.info("GET /api/media/usage - Storage usage request for sellerId: {}, productId: {}", sellerId, productId);
+        
+        StorageUsageResponse usage;
+        if (productId != null && !productId.isBlank()) {
+            usage = storageUsageService.getProductUsage(productId);
+            if (usage.getSellerId() != null && !usage.getSellerId().equals(sellerId)) {
+                throw new IllegalArgumentException("You do not have permission to view this product's usage");
+            }
+        } else {
+            usage = storageUsageService.getSellerUsage(sellerId);
+        }
+        
+        return ResponseEntity.ok(new ApiResponse<>(true, "Storage usage retrieved successfully", usage));
+    }
+
+    // Failures are logged by GlobalExceptionHandler; successful hot-path requests are sampled
+    private void logSampled(String endpoint, long start, String message, Object... args) {
+        long elapsed = System.nanoTime() - start;
+        if (!requestLogSampler.shouldLog(endpoint, elapsed)) {
+            return;
+        }
+        Object[] withElapsed = Arrays.copyOf(args, args.length + 1);
+        withElapsed[args.length] = TimeUnit.NANOSECONDS.toMillis(elapsed);
+        if (requestLogSampler.isSlow(elapsed)) {
+            log.warn(message, withElapsed);
+        } else {
+            log.info(message, withElapsed);
+        }
+    }
+
+    private String offloadPath(String filename, Optional<MediaVariantService.Variant> variant) {
+        if (serveMode == ServeMode.X_SENDFILE) {
+            return variant
+                .map(v -> fileStorageService.getVariantPath(filename, v.extension()))
+                .orElseGet(() -> fileStorageService.getMediaPath(filename))
+                .toAbsolutePath().toString();
+        }
+        if (variant.isPresent()) {
+            return accelVariantPrefix + "/" + filename + "." + variant.get().extension();
+        }
+        return (fileStorageService.isInColdTier(filename) ? accelColdPrefix : accelPrefix) + "/" + filename;
+    }
+
     private String determineContentType(String filename) {
         String extension = filename.substring(filename.lastIndexOf(".") + 1).toLowerCase();
         return switch (extension) {
@@ -0,0 +1,123 @@
+package io.github.johneliud.media_service.controllers;
+
+import io.github.johneliud.media_service.dto.ApiResponse;
+import io.github.johneliud.media_service.dto.MediaResponse;
+import io.github.johneliud.media_service.dto.UploadSessionRequest;
+import io.github.johneliud.media_service.dto.UploadSessionResponse;
+import io.github.johneliud.media_service.services.ChunkedUploadService;
+import io.github.johneliud.media_service.services.UploadRateLimiter;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/media/uploads")
+@RequiredArgsConstructor
+@Slf4j
+public class UploadSessionController {
+    private final ChunkedUploadService chunkedUploadService;
+    private final UploadRateLimiter uploadRateLimiter;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<UploadSessionResponse>> createSession(
+            @Valid @RequestBody UploadSessionRequest request,
+            @RequestHeader("X-User-Id") String sellerId,
+            @RequestHeader("X-User-Role") String role) {
+
+        if (!role.equals("SELLER")) {
+            throw new IllegalArgumentException("Only sellers can upload media");
+        }
+
+        log.info("POST /api/media/uploads - Upload session request for productId: {} by seller: {}",
+                request.getProductId(), sellerId);
+
+        UploadSessionResponse session;
+        try (UploadRateLimiter.Permit permit = uploadRateLimiter.acquireUpload(sellerId)) {
+            session = chunkedUploadService.createSession(request, sellerId);
+        }
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(new ApiResponse<>(true, "Upload session created successfully", session));
+    }
+
+    @PutMapping(value = "/{sessionId}", consumes = "application/octet-stream")
+    public ResponseEntity<ApiResponse<UploadSessionResponse>> uploadChunk(
+            @PathVariable String sessionId,
+            @RequestParam("offset") long offset,
+            InputStream body,
+            @RequestHeader("X-User-Id") String sellerId,
+            @RequestHeader("X-User-Role") String role) {
+
+        if (!role.equals("SELLER")) {
+            throw new IllegalArgumentException("Only sellers can upload media");
+        }
+
+        log.info("PUT /api/media/uploads/{} - Chunk at offset {} by seller: {}", sessionId, offset, sellerId);
+
+        UploadSessionResponse session;
+        try (UploadRateLimiter.Permit permit = uploadRateLimiter.acquireTransfer(sellerId)) {
+            session = chunkedUploadService.writeChunk(sessionId, sellerId, offset, body);
+        }
+
+        return ResponseEntity.ok(new ApiResponse<>(true, "Chunk uploaded successfully", session));
+    }
+
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<ApiResponse<UploadSessionResponse>> getProgress(
+            @PathVariable String sessionId,
+            @RequestHeader("X-User-Id") String sellerId,
+            @RequestHeader("X-User-Role") String role) {
+
+        if (!role.equals("SELLER")) {
+            throw new IllegalArgumentException("Only sellers can access this endpoint");
+        }
+
+        UploadSessionResponse session = chunkedUploadService.getProgress(sessionId, sellerId);
+
+        return ResponseEntity.ok(new ApiResponse<>(true, "Upload session retrieved successfully", session));
+    }
+
+    @PostMapping("/{sessionId}/complete")
+    public ResponseEntity<ApiResponse<MediaResponse>> completeSession(
+            @PathVariable String sessionId,
+            @RequestHeader("X-User-Id") String sellerId,
+            @RequestHeader("X-User-Role") String role) {
+
+        if (!role.equals("SELLER")) {
+            throw new IllegalArgumentException("Only sellers can upload media");
+        }
+
+        log.info("POST /api/media/uploads/{}/complete - Finalize request by seller: {}", sessionId, sellerId);
+
+        MediaResponse mediaResponse;
+        try (UploadRateLimiter.Permit permit = uploadRateLimiter.acquireTransfer(sellerId)) {
+            mediaResponse = chunkedUploadService.completeSession(sessionId, sellerId);
+        }
+
+        log.info("POST /api/media/uploads/{}/complete - Media uploaded successfully: {}", sessionId, mediaResponse.getId());
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(new ApiResponse<>(true, "Media uploaded successfully", mediaResponse));
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<ApiResponse<Void>> abortSession(
+            @PathVariable String sessionId,
+            @RequestHeader("X-User-Id") String sellerId,
+            @RequestHeader("X-User-Role") String role) {
+
+        if (!role.equals("SELLER")) {
+            throw new IllegalArgumentException("Only sellers can upload media");
+        }
+
+        log.info("DELETE /api/media/uploads/{} - Abort request by seller: {}", sessionId, sellerId);
+
+        chunkedUploadService.abortSession(sessionId, sellerId);
+
+        return ResponseEntity.ok(new ApiResponse<>(true, "Upload session aborted successfully", null));
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.johneliud.media_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ByteRange {
+    private long start;
+    private long end;
+}
@@ -0,0 +1,16 @@
+package io.github.johneliud.media_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationMessage {
+    private String origin;
+    private List<String> mediaIds;
+    private List<String> productIds;
+}
@@ -0,0 +1,15 @@
+package io.github.johneliud.media_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateGroup {
+    private List<MediaResponse> media;
+    private int maxDistance;
+}
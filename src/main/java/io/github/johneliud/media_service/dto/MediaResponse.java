@@ -12,4 +12,7 @@ public class MediaResponse {
     private String imagePath;
     private String productId;
     private String sellerId;
+    private Integer width;
+    private Integer height;
+    private String placeholder;
 }
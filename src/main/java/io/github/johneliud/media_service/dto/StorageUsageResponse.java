@@ -0,0 +1,16 @@
+package io.github.johneliud.media_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageUsageResponse {
+    private String sellerId;
+    private String productId;
+    private long bytes;
+    private long objects;
+    private Long quotaBytes;
+}
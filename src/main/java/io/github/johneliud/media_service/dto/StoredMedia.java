@@ -0,0 +1,18 @@
+package io.github.johneliud.media_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredMedia {
+    private String filename;
+    private long size;
+    private String checksum;
+    private int width;
+    private int height;
+    private String placeholder;
+    private Long perceptualHash;
+}
@@ -0,0 +1,24 @@
+package io.github.johneliud.media_service.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionRequest {
+    @NotBlank(message = "productId is required")
+    private String productId;
+
+    @NotBlank(message = "filename is required")
+    private String filename;
+
+    @NotBlank(message = "contentType is required")
+    private String contentType;
+
+    @Positive(message = "totalSize must be positive")
+    private long totalSize;
+}
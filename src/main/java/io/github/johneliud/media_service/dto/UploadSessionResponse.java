@@ -0,0 +1,21 @@
+package io.github.johneliud.media_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+    private String sessionId;
+    private String productId;
+    private long totalSize;
+    private long receivedBytes;
+    private List<ByteRange> receivedRanges;
+    private boolean complete;
+    private Instant expiresAt;
+}
@@ -0,0 +1,17 @@
+package io.github.johneliud.media_service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MediaDeletedEvent {
+    private String mediaId;
+    private String productId;
+    private String sellerId;
+    private Instant timestamp;
+}
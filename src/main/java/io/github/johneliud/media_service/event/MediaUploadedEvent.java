@@ -0,0 +1,21 @@
+package io.github.johneliud.media_service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MediaUploadedEvent {
+    private String mediaId;
+    private String productId;
+    private String sellerId;
+    private String imagePath;
+    private Integer width;
+    private Integer height;
+    private String placeholder;
+    private Instant timestamp;
+}
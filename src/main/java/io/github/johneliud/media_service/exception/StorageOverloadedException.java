@@ -0,0 +1,13 @@
+package io.github.johneliud.media_service.exception;
+
+import lombok.Getter;
+
+@Getter
+public class StorageOverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public StorageOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.johneliud.media_service.listener;
+
+import io.github.johneliud.media_service.dto.CacheInvalidationMessage;
+import io.github.johneliud.media_service.services.MediaCacheInvalidator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationListener {
+
+    private final MediaCacheInvalidator mediaCacheInvalidator;
+    private final ObjectMapper objectMapper;
+
+    // Every replica needs every message, so each one joins its own consumer group and only reads new records
+    @KafkaListener(topics = "${media.cache.invalidation.topic:media-cache-invalidation}",
+            groupId = "media-cache-#{@mediaCacheInvalidator.instanceId}",
+            properties = "auto.offset.reset=latest")
+    public void handleInvalidationMessage(String message) {
+        try {
+            mediaCacheInvalidator.applyRemote(objectMapper.readValue(message, CacheInvalidationMessage.class));
+        } catch (Exception e) {
+            log.error("Failed to process cache invalidation: {}", e.getMessage());
+        }
+    }
+}
@@ -4,13 +4,21 @@ import io.github.johneliud.media_service.event.ProductDeletedEvent;
 import io.github.johneliud.media_service.models.Media;
 import io.github.johneliud.media_service.repositories.MediaRepository;
 import io.github.johneliud.media_service.services.FileStorageService;
+import io.github.johneliud.media_service.services.MediaCacheInvalidator;
+import io.github.johneliud.media_service.services.MediaEventPublisher;
+import io.github.johneliud.media_service.services.StorageUsageService;
+import io.github.johneliud.media_service.services.StructuredTasks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 import tools.jackson.databind.ObjectMapper;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 
 @Component
 @RequiredArgsConstructor
@@ -20,14 +28,17 @@ public class ProductEventListener {
     private final MediaRepository mediaRepository;
     private final FileStorageService fileStorageService;
     private final ObjectMapper objectMapper;
+    private final MediaCacheInvalidator mediaCacheInvalidator;
+    private final MediaEventPublisher mediaEventPublisher;
+    private final StorageUsageService storageUsageService;
+
+    @Value("${media.cascade.max-parallel-deletes:4}")
+    private int maxParallelDeletes;
 
     @KafkaListener(topics = "product-deleted", groupId = "media-service")
     public void handleProductDeletedMessage(String message) {
-        try {
-            handleProductDeleted(objectMapper.readValue(message, ProductDeletedEvent.class));
-        } catch (Exception e) {
-            log.error("Failed to deserialize product-deleted event: {}", e.getMessage());
-        }
+        // Failures propagate to the retry topics; malformed payloads go straight to the dead-letter topic
+        handleProductDeleted(objectMapper.readValue(message, ProductDeletedEvent.class));
     }
 
     public void handleProductDeleted(ProductDeletedEvent event) {
@@ -35,17 +46,46 @@ public class ProductEventListener {
         
         List<Media> mediaList = mediaRepository.findByProductId(event.getProductId());
         
-        for (Media media : mediaList) {
-            try {
-                fileStorageService.deleteMedia(media.getImagePath());
-                mediaRepository.deleteById(media.getId());
-                log.info("Deleted media: {} for product: {}", media.getId(), event.getProductId());
-            } catch (Exception e) {
-                log.error("Failed to delete media: {} - {}", media.getId(), e.getMessage());
+        // Each media is deleted independently, at most maxParallelDeletes at a time so a product with
+        // many images can't flood storage and MongoDB
+        Semaphore slots = new Semaphore(Math.max(1, maxParallelDeletes));
+        List<Supplier<Boolean>> results = new ArrayList<>();
+        try (StructuredTasks tasks = StructuredTasks.open()) {
+            for (Media media : mediaList) {
+                slots.acquireUninterruptibly();
+                results.add(tasks.fork(() -> {
+                    try {
+                        return deleteMedia(media, event.getProductId());
+                    } finally {
+                        slots.release();
+                    }
+                }));
             }
+            tasks.joinUninterruptibly();
         }
+        long failed = results.stream().filter(deleted -> !deleted.get()).count();
         
+        mediaCacheInvalidator.invalidateProduct(event.getProductId());
+        if (failed > 0) {
+            // Deleted media are gone on retry, so redelivery only repeats the failed ones
+            throw new IllegalStateException("Failed to delete " + failed + " media for product " + event.getProductId());
+        }
         log.info("Cascading deletion completed for product: {}, deleted {} media files", 
                 event.getProductId(), mediaList.size());
     }
+
+    private boolean deleteMedia(Media media, String productId) {
+        try {
+            fileStorageService.deleteMedia(media.getImagePath());
+            mediaRepository.deleteById(media.getId());
+            storageUsageService.recordDelete(media);
+            mediaCacheInvalidator.invalidateMedia(media.getId(), productId);
+            mediaEventPublisher.publishDeleted(media);
+            log.info("Deleted media: {} for product: {}", media.getId(), productId);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to delete media: {} - {}", media.getId(), e.getMessage());
+            return false;
+        }
+    }
 }
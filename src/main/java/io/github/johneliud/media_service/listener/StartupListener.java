@@ -0,0 +1,98 @@
+package io.github.johneliud.media_service.listener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StartupListener {
+
+    private final ObjectProvider<KafkaListenerEndpointRegistry> kafkaListenerEndpointRegistry;
+
+    @Value("${media.kafka.lazy-start:true}")
+    private boolean lazyStart;
+
+    @Value("${media.kafka.lazy-start-delay:0s}")
+    private Duration lazyStartDelay;
+
+    @Value("${media.startup.report:true}")
+    private boolean startupReport;
+
+    @Value("${media.startup.report-top-steps:15}")
+    private int reportTopSteps;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startKafkaListeners() {
+        KafkaListenerEndpointRegistry registry = kafkaListenerEndpointRegistry.getIfAvailable();
+        if (!lazyStart || registry == null) {
+            return;
+        }
+
+        Thread.ofVirtual().name("kafka-lazy-start").start(() -> {
+            try {
+                Thread.sleep(lazyStartDelay);
+                long start = System.nanoTime();
+                registry.getListenerContainers().stream()
+                        .filter(Objects::nonNull)
+                        .filter(container -> !container.isRunning())
+                        .forEach(MessageListenerContainer::start);
+                log.info("Kafka listeners started in {}ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Failed to start Kafka listeners", e);
+            }
+        });
+    }
+
+    @EventListener
+    public void logStartupReport(ApplicationReadyEvent event) {
+        if (!startupReport) {
+            return;
+        }
+
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        ApplicationStartup applicationStartup = event.getApplicationContext().getApplicationStartup();
+        if (!(applicationStartup instanceof BufferingApplicationStartup buffering)) {
+            log.info("Startup report: ready in {}ms since JVM start (startup steps are not recorded)", uptime);
+            return;
+        }
+
+        StartupTimeline timeline = buffering.getBufferedTimeline();
+        String slowest = timeline.getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(reportTopSteps)
+                .map(e -> String.format("  %6dms  %s%s", e.getDuration().toMillis(),
+                        e.getStartupStep().getName(), describeTags(e)))
+                .collect(Collectors.joining(System.lineSeparator()));
+
+        log.info("Startup report: ready in {}ms since JVM start, {}ms in application startup, {} steps recorded."
+                        + " Slowest steps:{}{}",
+                uptime, Duration.between(timeline.getStartTime(), Instant.now()).toMillis(),
+                timeline.getEvents().size(), System.lineSeparator(), slowest);
+    }
+
+    private String describeTags(StartupTimeline.TimelineEvent event) {
+        StringBuilder tags = new StringBuilder();
+        event.getStartupStep().getTags().forEach(tag -> tags.append(' ').append(tag.getKey()).append('=').append(tag.getValue()));
+        return tags.toString();
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.johneliud.media_service.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document(collection = "dead_letters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetter {
+    @Id
+    private String id;
+
+    @Indexed
+    private String originalTopic;
+
+    private Integer originalPartition;
+
+    private Long originalOffset;
+
+    private String messageKey;
+
+    private String payload;
+
+    private String exceptionClass;
+
+    private String exceptionMessage;
+
+    private Instant failedAt;
+
+    private Instant replayedAt;
+
+    private int replayCount;
+}
@@ -0,0 +1,8 @@
+package io.github.johneliud.media_service.models;
+
+public enum IntegrityStatus {
+    OK,
+    MISSING,
+    SIZE_MISMATCH,
+    CHECKSUM_MISMATCH
+}
@@ -7,6 +7,8 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+
 @Document(collection = "media")
 @Data
 @NoArgsConstructor
@@ -22,4 +24,24 @@ public class Media {
     
     @Indexed
     private String sellerId;
+
+    private Long fileSize;
+
+    private String checksum;
+
+    private Integer width;
+
+    private Integer height;
+
+    private String placeholder;
+
+    private Long perceptualHash;
+
+    private IntegrityStatus integrityStatus;
+
+    private Instant integrityCheckedAt;
+
+    private Instant lastAccessedAt;
+
+    private StorageTier storageTier;
 }
@@ -0,0 +1,26 @@
+package io.github.johneliud.media_service.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document(collection = "scrub_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScrubCheckpoint {
+    @Id
+    private String id;
+
+    private String lastMediaId;
+
+    private Instant passStartedAt;
+
+    private long scanned;
+
+    private long mismatches;
+}
@@ -0,0 +1,6 @@
+package io.github.johneliud.media_service.models;
+
+public enum StorageTier {
+    HOT,
+    COLD
+}
@@ -0,0 +1,33 @@
+package io.github.johneliud.media_service.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// One document per seller ("seller:<sellerId>") and per product ("product:<productId>")
+@Document(collection = "storage_usage")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageUsage {
+    @Id
+    private String id;
+
+    @Indexed
+    private String scope;
+
+    private String sellerId;
+
+    private String productId;
+
+    private long bytes;
+
+    private long objects;
+
+    private Instant updatedAt;
+}
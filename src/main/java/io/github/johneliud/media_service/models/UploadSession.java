@@ -0,0 +1,33 @@
+package io.github.johneliud.media_service.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document(collection = "upload_sessions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSession {
+    @Id
+    private String id;
+
+    @Indexed
+    private String sellerId;
+
+    private String productId;
+
+    private String originalFilename;
+
+    private String contentType;
+
+    private long totalSize;
+
+    @Indexed
+    private Instant expiresAt;
+}
@@ -0,0 +1,14 @@
+package io.github.johneliud.media_service.repositories;
+
+import io.github.johneliud.media_service.models.DeadLetter;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DeadLetterRepository extends MongoRepository<DeadLetter, String> {
+    List<DeadLetter> findByReplayedAtIsNullOrderByFailedAtAsc();
+
+    List<DeadLetter> findByOriginalTopicAndReplayedAtIsNullOrderByFailedAtAsc(String originalTopic);
+}
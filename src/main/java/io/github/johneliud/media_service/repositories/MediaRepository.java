@@ -1,7 +1,9 @@
 package io.github.johneliud.media_service.repositories;
 
 import io.github.johneliud.media_service.models.Media;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +13,9 @@ public interface MediaRepository extends MongoRepository<Media, String> {
     List<Media> findByProductId(String productId);
     List<Media> findBySellerId(String sellerId);
     List<Media> findBySellerIdAndProductId(String sellerId, String productId);
+    List<Media> findByIdGreaterThan(String id, Pageable pageable);
+
+    // Only ids and hashes; the duplicate report loads full documents for the media it groups
+    @Query(value = "{ 'sellerId': ?0, 'perceptualHash': { $ne: null } }", fields = "{ 'perceptualHash': 1 }")
+    List<Media> findHashesBySellerId(String sellerId, Pageable pageable);
 }
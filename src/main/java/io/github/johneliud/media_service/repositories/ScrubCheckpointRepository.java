@@ -0,0 +1,9 @@
+package io.github.johneliud.media_service.repositories;
+
+import io.github.johneliud.media_service.models.ScrubCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScrubCheckpointRepository extends MongoRepository<ScrubCheckpoint, String> {
+}
@@ -0,0 +1,13 @@
+package io.github.johneliud.media_service.repositories;
+
+import io.github.johneliud.media_service.models.UploadSession;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends MongoRepository<UploadSession, String> {
+    List<UploadSession> findByExpiresAtBefore(Instant instant);
+}
@@ -0,0 +1,331 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.dto.ByteRange;
+import io.github.johneliud.media_service.dto.MediaResponse;
+import io.github.johneliud.media_service.dto.UploadSessionRequest;
+import io.github.johneliud.media_service.dto.UploadSessionResponse;
+import io.github.johneliud.media_service.models.UploadSession;
+import io.github.johneliud.media_service.repositories.UploadSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkedUploadService {
+    private static final String PART_SUFFIX = ".part";
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final FileStorageService fileStorageService;
+    private final MediaService mediaService;
+    private final StorageConcurrencyLimiter storageConcurrencyLimiter;
+    private final StorageUsageService storageUsageService;
+
+    private final Set<String> finalizing = ConcurrentHashMap.newKeySet();
+
+    @Value("${media.upload.chunk-dir:uploads/chunks}")
+    private String chunkDir;
+
+    @Value("${media.upload.session-ttl:PT24H}")
+    private Duration sessionTtl;
+
+    public UploadSessionResponse createSession(UploadSessionRequest request, String sellerId) {
+        log.info("Creating upload session for productId: {}, sellerId: {}, size: {}",
+                request.getProductId(), sellerId, request.getTotalSize());
+
+        fileStorageService.validateUpload(request.getFilename(), request.getContentType(), request.getTotalSize());
+        storageUsageService.checkQuota(sellerId, request.getTotalSize());
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setSellerId(sellerId);
+        session.setProductId(request.getProductId());
+        session.setOriginalFilename(request.getFilename());
+        session.setContentType(request.getContentType());
+        session.setTotalSize(request.getTotalSize());
+        session.setExpiresAt(Instant.now().plus(sessionTtl));
+
+        UploadSession saved = uploadSessionRepository.save(session);
+        log.info("Upload session created: {}", saved.getId());
+        return toResponse(saved);
+    }
+
+    public UploadSessionResponse writeChunk(String sessionId, String sellerId, long offset, InputStream body) {
+        UploadSession session = getOwnedSession(sessionId, sellerId);
+
+        if (offset < 0 || offset >= session.getTotalSize()) {
+            log.warn("Chunk rejected for session {}: offset {} outside 0..{}", sessionId, offset, session.getTotalSize());
+            throw new IllegalArgumentException("Chunk offset is outside the declared upload size");
+        }
+
+        Path sessionPath = sessionPath(sessionId);
+        Path temp = sessionPath.resolve(offset + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.createDirectories(sessionPath);
+
+            long remaining = session.getTotalSize() - offset;
+            long written;
+            // The copy is paced by the client's upload speed, so it holds a slot but isn't a latency sample
+            try (StorageConcurrencyLimiter.Permit permit =
+                         storageConcurrencyLimiter.acquireUnsampled(StorageConcurrencyLimiter.Operation.WRITE);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                written = body.transferTo(new BoundedOutputStream(out, remaining));
+            }
+
+            if (written == 0) {
+                throw new IllegalArgumentException("Chunk is empty");
+            }
+
+            // Publish the part only once it is fully written so a dropped connection never leaves a short chunk
+            Files.move(temp, sessionPath.resolve(offset + PART_SUFFIX),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Stored chunk for session {}: offset {}, {} bytes", sessionId, offset, written);
+        } catch (IOException e) {
+            log.error("Failed to store chunk for session {} at offset {}", sessionId, offset, e);
+            throw new RuntimeException("Failed to store chunk", e);
+        } finally {
+            deleteQuietly(temp);
+        }
+
+        session.setExpiresAt(Instant.now().plus(sessionTtl));
+        uploadSessionRepository.save(session);
+        return toResponse(session);
+    }
+
+    public UploadSessionResponse getProgress(String sessionId, String sellerId) {
+        return toResponse(getOwnedSession(sessionId, sellerId));
+    }
+
+    public MediaResponse completeSession(String sessionId, String sellerId) {
+        UploadSession session = getOwnedSession(sessionId, sellerId);
+
+        if (!finalizing.add(sessionId)) {
+            log.warn("Upload session {} is already being finalized", sessionId);
+            throw new IllegalArgumentException("Upload session is already being finalized");
+        }
+
+        Path assembled = sessionPath(sessionId).resolve("assembled");
+        try {
+            List<Chunk> chunks = listChunks(sessionId);
+            long received = receivedBytes(mergeRanges(chunks));
+            if (received != session.getTotalSize()) {
+                log.warn("Upload session {} incomplete: {} of {} bytes received",
+                        sessionId, received, session.getTotalSize());
+                throw new IllegalArgumentException(
+                        "Upload incomplete: " + received + " of " + session.getTotalSize() + " bytes received");
+            }
+
+            assemble(chunks, assembled);
+            MediaResponse media = mediaService.uploadMedia(assembled, session.getOriginalFilename(),
+                    session.getContentType(), session.getProductId(), session.getSellerId());
+
+            discardSession(sessionId);
+            log.info("Upload session {} finalized as media {}", sessionId, media.getId());
+            return media;
+        } catch (IOException e) {
+            log.error("Failed to assemble upload session {}", sessionId, e);
+            throw new RuntimeException("Failed to assemble upload", e);
+        } finally {
+            deleteQuietly(assembled);
+            finalizing.remove(sessionId);
+        }
+    }
+
+    public void abortSession(String sessionId, String sellerId) {
+        getOwnedSession(sessionId, sellerId);
+        discardSession(sessionId);
+        log.info("Upload session aborted: {}", sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${media.upload.session-cleanup-interval-ms:300000}")
+    public void cleanupExpiredSessions() {
+        List<UploadSession> expired = uploadSessionRepository.findByExpiresAtBefore(Instant.now());
+        for (UploadSession session : expired) {
+            if (!finalizing.contains(session.getId())) {
+                discardSession(session.getId());
+            }
+        }
+
+        int orphans = 0;
+        Path root = Paths.get(chunkDir);
+        if (Files.isDirectory(root)) {
+            Instant cutoff = Instant.now().minus(sessionTtl);
+            try (Stream<Path> dirs = Files.list(root)) {
+                for (Path dir : dirs.toList()) {
+                    String sessionId = dir.getFileName().toString();
+                    if (Files.getLastModifiedTime(dir).toInstant().isBefore(cutoff)
+                            && !uploadSessionRepository.existsById(sessionId)) {
+                        FileSystemUtils.deleteRecursively(dir);
+                        orphans++;
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Failed to sweep orphaned upload chunks in {}", root, e);
+            }
+        }
+
+        if (!expired.isEmpty() || orphans > 0) {
+            log.info("Upload session cleanup removed {} expired sessions and {} orphaned chunk directories",
+                    expired.size(), orphans);
+        }
+    }
+
+    private UploadSession getOwnedSession(String sessionId, String sellerId) {
+        UploadSession session = uploadSessionRepository.findById(sessionId)
+                .filter(s -> s.getExpiresAt() == null || s.getExpiresAt().isAfter(Instant.now()))
+                .orElseThrow(() -> {
+                    log.warn("Upload session not found or expired: {}", sessionId);
+                    return new IllegalArgumentException("Upload session not found or expired");
+                });
+
+        if (!session.getSellerId().equals(sellerId)) {
+            log.warn("Seller {} does not own upload session {}", sellerId, sessionId);
+            throw new IllegalArgumentException("You do not have permission to access this upload session");
+        }
+        return session;
+    }
+
+    private void discardSession(String sessionId) {
+        try {
+            FileSystemUtils.deleteRecursively(sessionPath(sessionId));
+        } catch (IOException e) {
+            log.error("Failed to delete chunks for upload session {}", sessionId, e);
+        }
+        uploadSessionRepository.deleteById(sessionId);
+    }
+
+    private void assemble(List<Chunk> chunks, Path target) throws IOException {
+        long position = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            for (Chunk chunk : chunks) {
+                long end = chunk.offset() + chunk.length();
+                if (end <= position) {
+                    continue;
+                }
+                // Retried or overlapping chunks: skip whatever part of this chunk is already written
+                try (InputStream in = Files.newInputStream(chunk.path())) {
+                    in.skipNBytes(position - chunk.offset());
+                    position += in.transferTo(out);
+                }
+            }
+        }
+    }
+
+    private List<Chunk> listChunks(String sessionId) throws IOException {
+        Path sessionPath = sessionPath(sessionId);
+        if (!Files.isDirectory(sessionPath)) {
+            return List.of();
+        }
+
+        List<Chunk> chunks = new ArrayList<>();
+        try (Stream<Path> files = Files.list(sessionPath)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(PART_SUFFIX)) {
+                    long offset = Long.parseLong(name.substring(0, name.length() - PART_SUFFIX.length()));
+                    chunks.add(new Chunk(offset, Files.size(file), file));
+                }
+            }
+        }
+        chunks.sort(Comparator.comparingLong(Chunk::offset));
+        return chunks;
+    }
+
+    private List<ByteRange> mergeRanges(List<Chunk> chunks) {
+        List<ByteRange> ranges = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            long end = chunk.offset() + chunk.length();
+            ByteRange last = ranges.isEmpty() ? null : ranges.getLast();
+            if (last != null && chunk.offset() <= last.getEnd()) {
+                last.setEnd(Math.max(last.getEnd(), end));
+            } else {
+                ranges.add(new ByteRange(chunk.offset(), end));
+            }
+        }
+        return ranges;
+    }
+
+    private long receivedBytes(List<ByteRange> ranges) {
+        return ranges.stream().mapToLong(r -> r.getEnd() - r.getStart()).sum();
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session) {
+        List<ByteRange> ranges;
+        try {
+            ranges = mergeRanges(listChunks(session.getId()));
+        } catch (IOException e) {
+            log.error("Failed to read chunks for upload session {}", session.getId(), e);
+            throw new RuntimeException("Failed to read upload progress", e);
+        }
+
+        long received = receivedBytes(ranges);
+        return new UploadSessionResponse(
+            session.getId(),
+            session.getProductId(),
+            session.getTotalSize(),
+            received,
+            ranges,
+            received == session.getTotalSize(),
+            session.getExpiresAt()
+        );
+    }
+
+    private Path sessionPath(String sessionId) {
+        return Paths.get(chunkDir).resolve(sessionId);
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete temporary upload file {}", path);
+        }
+    }
+
+    private record Chunk(long offset, long length, Path path) {}
+
+    private static final class BoundedOutputStream extends OutputStream {
+        private final OutputStream delegate;
+        private long remaining;
+
+        private BoundedOutputStream(OutputStream delegate, long limit) {
+            this.delegate = delegate;
+            this.remaining = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > remaining) {
+                throw new IllegalArgumentException("Chunk exceeds the declared upload size");
+            }
+            delegate.write(b, off, len);
+            remaining -= len;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.models.DeadLetter;
+import io.github.johneliud.media_service.repositories.DeadLetterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterService {
+    private static final long REPLAY_TIMEOUT_SECONDS = 10;
+
+    private final DeadLetterRepository deadLetterRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    public void handleDeadLetter(ConsumerRecord<String, String> record) {
+        DeadLetter deadLetter = new DeadLetter();
+        deadLetter.setOriginalTopic(headerString(record, KafkaHeaders.DLT_ORIGINAL_TOPIC, stripDltSuffix(record.topic())));
+        deadLetter.setOriginalPartition(headerInt(record, KafkaHeaders.DLT_ORIGINAL_PARTITION));
+        deadLetter.setOriginalOffset(headerLong(record, KafkaHeaders.DLT_ORIGINAL_OFFSET));
+        deadLetter.setMessageKey(record.key());
+        deadLetter.setPayload(record.value());
+        deadLetter.setExceptionClass(headerString(record, KafkaHeaders.DLT_EXCEPTION_FQCN, null));
+        deadLetter.setExceptionMessage(headerString(record, KafkaHeaders.DLT_EXCEPTION_MESSAGE, null));
+        deadLetter.setFailedAt(Instant.now());
+
+        deadLetterRepository.save(deadLetter);
+        log.error("Dead-lettered {} record at offset {}: {} - {}", deadLetter.getOriginalTopic(),
+                deadLetter.getOriginalOffset(), deadLetter.getExceptionClass(), deadLetter.getExceptionMessage());
+    }
+
+    public List<DeadLetter> getPendingDeadLetters(String topic) {
+        if (topic != null && !topic.isBlank()) {
+            return deadLetterRepository.findByOriginalTopicAndReplayedAtIsNullOrderByFailedAtAsc(topic);
+        }
+        return deadLetterRepository.findByReplayedAtIsNullOrderByFailedAtAsc();
+    }
+
+    public DeadLetter replay(String id) {
+        DeadLetter deadLetter = deadLetterRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Dead letter replay failed: Dead letter not found - {}", id);
+                    return new IllegalArgumentException("Dead letter not found");
+                });
+
+        // Replayed records re-enter the original topic and go through the normal retry path again
+        try {
+            kafkaTemplate.send(deadLetter.getOriginalTopic(), deadLetter.getMessageKey(), deadLetter.getPayload())
+                    .get(REPLAY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to replay dead letter", e);
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Failed to replay dead letter {} to {}", id, deadLetter.getOriginalTopic(), e);
+            throw new RuntimeException("Failed to replay dead letter", e);
+        }
+
+        deadLetter.setReplayedAt(Instant.now());
+        deadLetter.setReplayCount(deadLetter.getReplayCount() + 1);
+        log.info("Replayed dead letter {} to {}", id, deadLetter.getOriginalTopic());
+        return deadLetterRepository.save(deadLetter);
+    }
+
+    public int replayAll(String topic) {
+        List<DeadLetter> pending = getPendingDeadLetters(topic);
+        for (DeadLetter deadLetter : pending) {
+            replay(deadLetter.getId());
+        }
+        log.info("Replayed {} dead letters{}", pending.size(), topic == null ? "" : " for topic " + topic);
+        return pending.size();
+    }
+
+    private String stripDltSuffix(String topic) {
+        return topic.endsWith("-dlt") ? topic.substring(0, topic.length() - 4) : topic;
+    }
+
+    private String headerString(ConsumerRecord<String, String> record, String name, String fallback) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? fallback : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private Integer headerInt(ConsumerRecord<String, String> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null || header.value().length != Integer.BYTES ? null : ByteBuffer.wrap(header.value()).getInt();
+    }
+
+    private Long headerLong(ConsumerRecord<String, String> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null || header.value().length != Long.BYTES ? null : ByteBuffer.wrap(header.value()).getLong();
+    }
+}
@@ -0,0 +1,149 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.dto.DuplicateGroup;
+import io.github.johneliud.media_service.dto.MediaResponse;
+import io.github.johneliud.media_service.models.Media;
+import io.github.johneliud.media_service.repositories.MediaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+@Service
+@Slf4j
+public class DuplicateDetectionService {
+    private static final int MAX_QUERY_DISTANCE = 16;
+
+    public enum UploadMode { OFF, REJECT, LINK }
+
+    private final MediaRepository mediaRepository;
+    private final UploadMode uploadMode;
+    private final int defaultMaxDistance;
+    private final int maxScan;
+
+    public DuplicateDetectionService(MediaRepository mediaRepository,
+                                     @Value("${media.duplicates.upload-mode:OFF}") UploadMode uploadMode,
+                                     @Value("${media.duplicates.max-distance:6}") int defaultMaxDistance,
+                                     @Value("${media.duplicates.max-scan:10000}") int maxScan) {
+        this.mediaRepository = mediaRepository;
+        this.uploadMode = uploadMode;
+        this.defaultMaxDistance = defaultMaxDistance;
+        this.maxScan = maxScan;
+    }
+
+    public UploadMode getUploadMode() {
+        return uploadMode;
+    }
+
+    // A product only holds a handful of images, so the upload check compares against them directly
+    public Optional<Media> findProductDuplicate(String sellerId, String productId, Long perceptualHash) {
+        if (uploadMode == UploadMode.OFF || perceptualHash == null) {
+            return Optional.empty();
+        }
+
+        List<Media> productMedia;
+        try (ServerTiming.Stage stage = ServerTiming.start("db")) {
+            productMedia = mediaRepository.findBySellerIdAndProductId(sellerId, productId);
+        }
+        return productMedia.stream()
+                .filter(media -> media.getPerceptualHash() != null)
+                .filter(media -> PerceptualHash.distance(media.getPerceptualHash(), perceptualHash) <= defaultMaxDistance)
+                .min(Comparator.comparingInt(media -> PerceptualHash.distance(media.getPerceptualHash(), perceptualHash)));
+    }
+
+    // Groups a seller's media into clusters of near-duplicates (connected components under the distance bound).
+    // Matches chain, so each group reports the largest distance actually found between two of its members.
+    public List<DuplicateGroup> findSellerDuplicates(String sellerId, Integer maxDistance) {
+        int distance = maxDistance == null ? defaultMaxDistance : maxDistance;
+        if (distance < 0 || distance > MAX_QUERY_DISTANCE) {
+            throw new IllegalArgumentException("maxDistance must be between 0 and " + MAX_QUERY_DISTANCE);
+        }
+
+        List<Media> hashes;
+        try (ServerTiming.Stage stage = ServerTiming.start("db")) {
+            hashes = mediaRepository.findHashesBySellerId(sellerId, PageRequest.of(0, maxScan, Sort.by("id")));
+        }
+        if (hashes.size() >= maxScan) {
+            log.warn("Duplicate report for seller {} limited to the first {} hashed media", sellerId, maxScan);
+        }
+
+        BkTree<Integer> index = new BkTree<>();
+        for (int i = 0; i < hashes.size(); i++) {
+            index.add(hashes.get(i).getPerceptualHash(), i);
+        }
+
+        int[] parent = new int[hashes.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (int i = 0; i < hashes.size(); i++) {
+            for (BkTree.Match<Integer> match : index.search(hashes.get(i).getPerceptualHash(), distance)) {
+                union(parent, i, match.value());
+            }
+        }
+
+        Map<Integer, List<Media>> components = new LinkedHashMap<>();
+        for (int i = 0; i < hashes.size(); i++) {
+            components.computeIfAbsent(find(parent, i), root -> new ArrayList<>()).add(hashes.get(i));
+        }
+        List<List<Media>> clusters = components.values().stream()
+                .filter(component -> component.size() > 1)
+                .toList();
+
+        Map<String, Media> documents = new HashMap<>();
+        if (!clusters.isEmpty()) {
+            List<String> ids = clusters.stream().flatMap(List::stream).map(Media::getId).toList();
+            try (ServerTiming.Stage stage = ServerTiming.start("db")) {
+                mediaRepository.findAllById(ids).forEach(media -> documents.put(media.getId(), media));
+            }
+        }
+
+        List<DuplicateGroup> groups = new ArrayList<>();
+        for (List<Media> cluster : clusters) {
+            // Members deleted since the scan are dropped
+            List<MediaResponse> members = cluster.stream()
+                    .map(media -> documents.get(media.getId()))
+                    .filter(Objects::nonNull)
+                    .map(MediaService::toMediaResponse)
+                    .toList();
+            if (members.size() > 1) {
+                groups.add(new DuplicateGroup(members, maxPairDistance(cluster)));
+            }
+        }
+        log.info("Found {} near-duplicate groups among {} media for seller {}", groups.size(), hashes.size(), sellerId);
+        return groups;
+    }
+
+    private static int maxPairDistance(List<Media> cluster) {
+        int max = 0;
+        for (int i = 0; i < cluster.size(); i++) {
+            for (int j = i + 1; j < cluster.size(); j++) {
+                max = Math.max(max, PerceptualHash.distance(cluster.get(i).getPerceptualHash(),
+                        cluster.get(j).getPerceptualHash()));
+            }
+        }
+        return max;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        parent[find(parent, a)] = find(parent, b);
+    }
+}
@@ -1,32 +1,87 @@
 package io.github.johneliud.media_service.services;
 
+import io.github.johneliud.media_service.dto.StoredMedia;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class FileStorageService {
     private static final long MAX_FILE_SIZE = 2 * 1024 * 1024; // 2MB
     private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList("png", "jpg", "jpeg", "webp");
+    private static final int THUMBNAIL_DECODE_SIZE = 32;
     private static final List<String> ALLOWED_MIME_TYPES = Arrays.asList(
         "image/png", "image/jpeg", "image/jpg", "image/webp"
     );
-    
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final StorageConcurrencyLimiter storageConcurrencyLimiter;
+    private final GroupCommitSyncer groupCommitSyncer;
+    private final SingleFlight<String, Optional<byte[]>> reads = new SingleFlight<>();
+
     @Value("${file.upload.dir:uploads/media}")
     private String uploadDir;
 
-    public String storeMedia(MultipartFile file) {
+    @Value("${media.variants.dir:uploads/variants}")
+    private String variantDir;
+
+    @Value("${media.image.max-dimension:16384}")
+    private int maxImageDimension;
+
+    @Value("${media.image.max-pixels:40000000}")
+    private long maxImagePixels;
+
+    @Value("${media.image.max-frames:100}")
+    private int maxImageFrames;
+
+    @Value("${media.placeholder.enabled:true}")
+    private boolean placeholderEnabled;
+
+    @Value("${media.placeholder.components-x:4}")
+    private int placeholderComponentsX;
+
+    @Value("${media.placeholder.components-y:3}")
+    private int placeholderComponentsY;
+
+    @Value("${media.duplicates.enabled:true}")
+    private boolean perceptualHashEnabled;
+
+    @Value("${media.tiering.enabled:false}")
+    private boolean tieringEnabled;
+
+    @Value("${media.tiering.cold-dir:uploads/cold}")
+    private String coldDir;
+
+    @Value("${media.storage.temp-file-max-age:PT1H}")
+    private Duration tempFileMaxAge;
+
+    public StoredMedia storeMedia(MultipartFile file) {
         log.info("Attempting to store media file: {}", file.getOriginalFilename());
 
         if (file.isEmpty()) {
@@ -34,64 +89,170 @@ public class FileStorageService {
             throw new IllegalArgumentException("File is empty");
         }
 
-        if (file.getSize() > MAX_FILE_SIZE) {
-            log.warn("Media upload failed: File size {} exceeds 2MB limit", file.getSize());
+        String extension;
+        ImageHeaderParser.ImageInfo info;
+        byte[] bytes;
+        try (ServerTiming.Stage stage = ServerTiming.start("validate")) {
+            extension = validateUpload(file.getOriginalFilename(), file.getContentType(), file.getSize());
+            bytes = file.getBytes();
+            info = validateImageIntegrity(bytes);
+        } catch (IOException e) {
+            log.error("Failed to validate image integrity", e);
+            throw new RuntimeException("Failed to validate image", e);
+        }
+
+        Fingerprint fingerprint = fingerprint(bytes);
+        try {
+            return writeMedia(file.getInputStream(), extension, info, fingerprint);
+        } catch (IOException e) {
+            log.error("Failed to store media file", e);
+            throw new RuntimeException("Failed to store file", e);
+        }
+    }
+
+    public StoredMedia storeMedia(Path source, String originalFilename, String contentType) {
+        log.info("Attempting to store assembled media file: {}", originalFilename);
+
+        try {
+            long size = Files.size(source);
+            if (size == 0) {
+                log.warn("Media upload failed: File is empty");
+                throw new IllegalArgumentException("File is empty");
+            }
+
+            String extension;
+            byte[] bytes;
+            ImageHeaderParser.ImageInfo info;
+            try (ServerTiming.Stage stage = ServerTiming.start("validate")) {
+                extension = validateUpload(originalFilename, contentType, size);
+                bytes = Files.readAllBytes(source);
+                info = validateImageIntegrity(bytes);
+            }
+            Fingerprint fingerprint = fingerprint(bytes);
+
+            try (InputStream in = Files.newInputStream(source)) {
+                return writeMedia(in, extension, info, fingerprint);
+            }
+        } catch (IOException e) {
+            log.error("Failed to store assembled media file", e);
+            throw new RuntimeException("Failed to store file", e);
+        }
+    }
+
+    String validateUpload(String originalFilename, String contentType, long size) {
+        if (size > MAX_FILE_SIZE) {
+            log.warn("Media upload failed: File size {} exceeds 2MB limit", size);
             throw new IllegalArgumentException("File size exceeds 2MB limit");
         }
 
-        String contentType = file.getContentType();
         if (contentType == null || !ALLOWED_MIME_TYPES.contains(contentType.toLowerCase())) {
             log.warn("Media upload failed: Invalid MIME type - {}", contentType);
             throw new IllegalArgumentException("Only PNG, JPG, JPEG, and WEBP files are allowed");
         }
 
-        String originalFilename = file.getOriginalFilename();
         String extension = getFileExtension(originalFilename);
-        
+
         if (!ALLOWED_EXTENSIONS.contains(extension.toLowerCase())) {
             log.warn("Media upload failed: Invalid file extension - {}", extension);
             throw new IllegalArgumentException("Only PNG, JPG, JPEG, and WEBP files are allowed");
         }
+        return extension;
+    }
 
-        validateImageIntegrity(file);
-
-        try {
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-                log.info("Created upload directory: {}", uploadPath);
-            }
+    private StoredMedia writeMedia(InputStream in, String extension, ImageHeaderParser.ImageInfo info,
+                                   Fingerprint fingerprint) throws IOException {
+        Path uploadPath = Paths.get(uploadDir);
+        if (!Files.exists(uploadPath)) {
+            Files.createDirectories(uploadPath);
+            log.info("Created upload directory: {}", uploadPath);
+        }
 
-            String filename = UUID.randomUUID() + "." + extension;
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            
-            log.info("Media stored successfully: {}", filename);
-            return filename;
-        } catch (IOException e) {
-            log.error("Failed to store media file", e);
-            throw new RuntimeException("Failed to store file", e);
+        String filename = UUID.randomUUID() + "." + extension;
+        Path filePath = uploadPath.resolve(filename);
+        // Staged next to the target so the rename stays on one filesystem and is atomic
+        Path tempPath = uploadPath.resolve("." + filename + TEMP_SUFFIX);
+        MessageDigest digest = newChecksumDigest();
+        long size;
+        try (ServerTiming.Stage stage = ServerTiming.start("disk-write");
+             StorageConcurrencyLimiter.Permit permit =
+                     storageConcurrencyLimiter.acquire(StorageConcurrencyLimiter.Operation.WRITE)) {
+            size = Files.copy(new DigestInputStream(in, digest), tempPath);
+            groupCommitSyncer.syncFile(tempPath);
+            Files.move(tempPath, filePath, StandardCopyOption.ATOMIC_MOVE);
+            // The media document is only saved after this returns, so it never points at a file a crash can lose
+            groupCommitSyncer.syncDirectory(uploadPath);
+        } finally {
+            Files.deleteIfExists(tempPath);
         }
+
+        log.info("Media stored successfully: {}", filename);
+        return new StoredMedia(filename, size, HexFormat.of().formatHex(digest.digest()), info.width(), info.height(),
+                fingerprint.placeholder(), fingerprint.perceptualHash());
     }
 
-    private void validateImageIntegrity(MultipartFile file) {
+    public static MessageDigest newChecksumDigest() {
         try {
-            byte[] bytes = file.getBytes();
-            if (bytes.length < 8) {
-                log.warn("Image validation failed: File too small to be a valid image");
-                throw new IllegalArgumentException("Invalid image file");
-            }
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 
-            // Check magic bytes for common image formats
-            if (isPNG(bytes) || isJPEG(bytes) || isWEBP(bytes)) {
-                return;
-            }
+    private ImageHeaderParser.ImageInfo validateImageIntegrity(byte[] bytes) {
+        if (bytes.length < 8) {
+            log.warn("Image validation failed: File too small to be a valid image");
+            throw new IllegalArgumentException("Invalid image file");
+        }
 
+        // Check magic bytes for common image formats
+        if (!isPNG(bytes) && !isJPEG(bytes) && !isWEBP(bytes)) {
             log.warn("Image validation failed: File does not match expected image format");
             throw new IllegalArgumentException("Invalid image file");
-        } catch (IOException e) {
-            log.error("Failed to validate image integrity", e);
-            throw new RuntimeException("Failed to validate image", e);
+        }
+
+        // Read dimensions from the headers only, so oversized images are rejected before anything decodes them
+        ImageHeaderParser.ImageInfo info = ImageHeaderParser.parse(bytes);
+        if (info == null) {
+            log.warn("Image validation failed: Image header is missing or malformed");
+            throw new IllegalArgumentException("Invalid image file");
+        }
+
+        if (info.width() > maxImageDimension || info.height() > maxImageDimension || info.pixels() > maxImagePixels) {
+            log.warn("Image validation failed: {}x{} exceeds limits ({} px per side, {} pixels)",
+                    info.width(), info.height(), maxImageDimension, maxImagePixels);
+            throw new IllegalArgumentException("Image dimensions exceed the allowed limit");
+        }
+
+        if (info.frames() > maxImageFrames) {
+            log.warn("Image validation failed: {} frames exceeds limit of {}", info.frames(), maxImageFrames);
+            throw new IllegalArgumentException("Image has too many frames");
+        }
+        return info;
+    }
+
+    private record Fingerprint(String placeholder, Long perceptualHash) {}
+
+    // Only called after validateImageIntegrity has bounded the dimensions. The placeholder and the
+    // perceptual hash share one subsampled decode; both are best-effort and never fail the upload
+    private Fingerprint fingerprint(byte[] bytes) {
+        if (!placeholderEnabled && !perceptualHashEnabled) {
+            return new Fingerprint(null, null);
+        }
+
+        try (ServerTiming.Stage stage = ServerTiming.start("thumbnail")) {
+            BufferedImage thumbnail = ImageThumbnails.decode(bytes, THUMBNAIL_DECODE_SIZE);
+            if (thumbnail == null) {
+                log.debug("No decoder available for placeholder generation");
+                return new Fingerprint(null, null);
+            }
+            String placeholder = placeholderEnabled
+                    ? BlurHashEncoder.encode(thumbnail, placeholderComponentsX, placeholderComponentsY)
+                    : null;
+            Long perceptualHash = perceptualHashEnabled ? PerceptualHash.dHash(thumbnail) : null;
+            return new Fingerprint(placeholder, perceptualHash);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to generate image placeholder: {}", e.getMessage());
+            return new Fingerprint(null, null);
         }
     }
 
@@ -124,15 +285,172 @@ public class FileStorageService {
 
         try {
             Path filePath = Paths.get(uploadDir).resolve(filename);
-            Files.deleteIfExists(filePath);
+            try (ServerTiming.Stage stage = ServerTiming.start("disk-delete")) {
+                Files.deleteIfExists(filePath);
+                Files.deleteIfExists(Paths.get(coldDir).resolve(filename));
+            }
             log.info("Media deleted: {}", filename);
         } catch (IOException e) {
             log.error("Failed to delete media: {}", filename, e);
         }
+        deleteVariants(filename);
+    }
+
+    // Concurrent reads of the same original or variant share one disk read and one storage permit
+    public Optional<byte[]> loadMedia(String filename) {
+        return reads.execute(filename, () -> readMedia(filename));
+    }
+
+    private Optional<byte[]> readMedia(String filename) {
+        Path hotPath = Paths.get(uploadDir).resolve(filename);
+        Optional<byte[]> content = readFile(hotPath, filename);
+        if (content.isPresent() || !tieringEnabled) {
+            return content;
+        }
+        // Fall through to the cold tier; a promotion racing with this read has already moved it back
+        content = readFile(Paths.get(coldDir).resolve(filename), filename);
+        return content.isPresent() ? content : readFile(hotPath, filename);
+    }
+
+    public boolean isInColdTier(String filename) {
+        return tieringEnabled
+                && !Files.exists(Paths.get(uploadDir).resolve(filename))
+                && Files.exists(Paths.get(coldDir).resolve(filename));
+    }
+
+    // Moves the original to the cold tier and drops its variants, which are regenerated if the media is read again
+    public boolean demote(String filename) throws IOException {
+        boolean moved = moveBetweenTiers(Paths.get(uploadDir).resolve(filename), Paths.get(coldDir), filename);
+        if (moved) {
+            deleteVariants(filename);
+            log.info("Media moved to cold tier: {}", filename);
+        }
+        return moved;
+    }
+
+    public boolean promote(String filename) throws IOException {
+        boolean moved = moveBetweenTiers(Paths.get(coldDir).resolve(filename), Paths.get(uploadDir), filename);
+        if (moved) {
+            log.info("Media promoted to hot tier: {}", filename);
+        }
+        return moved;
+    }
+
+    // The tiers may be different filesystems, so this is a durable copy followed by deleting the source;
+    // readers always find the file in at least one tier
+    private boolean moveBetweenTiers(Path source, Path targetDir, String filename) throws IOException {
+        if (!Files.exists(source)) {
+            return false;
+        }
+        Files.createDirectories(targetDir);
+        // Unique per call so concurrent moves of the same file never share a staging file
+        Path temp = targetDir.resolve("." + UUID.randomUUID() + "-" + filename + TEMP_SUFFIX);
+        // A bulk copy is not a latency sample: it would shrink the limit that foreground requests rely on
+        try (StorageConcurrencyLimiter.Permit permit =
+                     storageConcurrencyLimiter.acquireUnsampled(StorageConcurrencyLimiter.Operation.WRITE)) {
+            Files.copy(source, temp);
+            groupCommitSyncer.syncFile(temp);
+            Files.move(temp, targetDir.resolve(filename), StandardCopyOption.ATOMIC_MOVE);
+            groupCommitSyncer.syncDirectory(targetDir);
+            Files.deleteIfExists(source);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return true;
+    }
+
+    public Optional<byte[]> loadVariant(String filename, String extension) {
+        return reads.execute(filename + "." + extension,
+                () -> readFile(getVariantPath(filename, extension), filename));
+    }
+
+    public boolean hasVariant(String filename, String extension) {
+        return Files.exists(getVariantPath(filename, extension));
     }
 
+    public void storeVariant(String filename, String extension, byte[] content) throws IOException {
+        Path target = getVariantPath(filename, extension);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), filename, ".tmp");
+        try (StorageConcurrencyLimiter.Permit permit =
+                     storageConcurrencyLimiter.acquire(StorageConcurrencyLimiter.Operation.WRITE)) {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Staged writes interrupted by a crash leave hidden temp files behind; they never became media
+    @Scheduled(fixedDelayString = "${media.storage.temp-cleanup-interval-ms:3600000}")
+    public void cleanupStaleTempFiles() {
+        Instant cutoff = Instant.now().minus(tempFileMaxAge);
+        cleanupStaleTempFiles(Paths.get(uploadDir), cutoff);
+        if (tieringEnabled) {
+            cleanupStaleTempFiles(Paths.get(coldDir), cutoff);
+        }
+    }
+
+    private void cleanupStaleTempFiles(Path dir, Instant cutoff) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, ".*" + TEMP_SUFFIX)) {
+            for (Path temp : stream) {
+                if (Files.getLastModifiedTime(temp).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(temp);
+                    log.info("Removed stale staged upload: {}", temp.getFileName());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to clean up staged uploads in {}", dir, e);
+        }
+    }
+
+    private void deleteVariants(String filename) {
+        Path variants = Paths.get(variantDir);
+        if (!Files.isDirectory(variants)) {
+            return;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(variants, filename + ".*")) {
+            for (Path variant : stream) {
+                Files.deleteIfExists(variant);
+                log.info("Media variant deleted: {}", variant.getFileName());
+            }
+        } catch (IOException e) {
+            log.error("Failed to delete variants of media: {}", filename, e);
+        }
+    }
+
+    private Optional<byte[]> readFile(Path filePath, String filename) {
+        try (ServerTiming.Stage stage = ServerTiming.start("disk-read");
+             StorageConcurrencyLimiter.Permit permit =
+                     storageConcurrencyLimiter.acquire(StorageConcurrencyLimiter.Operation.READ)) {
+            return Optional.of(Files.readAllBytes(filePath));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            log.error("Failed to read media: {}", filename, e);
+            throw new RuntimeException("Failed to read file", e);
+        }
+    }
+
+    // Resolves to the cold tier once the media has been moved there
     public Path getMediaPath(String filename) {
-        return Paths.get(uploadDir).resolve(filename);
+        Path hotPath = Paths.get(uploadDir).resolve(filename);
+        if (tieringEnabled && !Files.exists(hotPath)) {
+            Path coldPath = Paths.get(coldDir).resolve(filename);
+            if (Files.exists(coldPath)) {
+                return coldPath;
+            }
+        }
+        return hotPath;
+    }
+
+    public Path getVariantPath(String filename, String extension) {
+        return Paths.get(variantDir).resolve(filename + "." + extension);
     }
 
     private String getFileExtension(String filename) {
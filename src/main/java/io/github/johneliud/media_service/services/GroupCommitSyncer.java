@@ -0,0 +1,149 @@
+package io.github.johneliud.media_service.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@Slf4j
+public class GroupCommitSyncer {
+    private final boolean enabled;
+    private final long windowNanos;
+    private final Map<Path, DirectoryState> directories = new ConcurrentHashMap<>();
+    private final AtomicLong directorySyncs = new AtomicLong();
+
+    public GroupCommitSyncer(@Value("${media.storage.fsync:true}") boolean enabled,
+                             @Value("${media.storage.group-commit-window:PT0.002S}") Duration window) {
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+    }
+
+    public void syncFile(Path file) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        // Per-file data sync; concurrent calls let the filesystem fold them into shared journal commits
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    // Makes a completed rename in dir durable. Callers arriving while a sync is pending or running
+    // share the next one, so N concurrent uploads cost about one directory fsync per window.
+    public void syncDirectory(Path dir) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        directories.computeIfAbsent(dir.toAbsolutePath(), DirectoryState::new).sync();
+    }
+
+    long directorySyncCount() {
+        return directorySyncs.get();
+    }
+
+    private final class DirectoryState {
+        private final Path dir;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition synced = lock.newCondition();
+        private long requested;
+        private long completed;
+        private boolean syncing;
+        private IOException lastFailure;
+        private long lastFailureTicket;
+
+        private DirectoryState(Path dir) {
+            this.dir = dir;
+        }
+
+        private void sync() throws IOException {
+            long ticket;
+            lock.lock();
+            try {
+                ticket = ++requested;
+                while (completed < ticket) {
+                    if (!syncing) {
+                        syncing = true;
+                        break;
+                    }
+                    synced.awaitUninterruptibly();
+                }
+                if (completed >= ticket) {
+                    if (lastFailure != null && lastFailureTicket >= ticket) {
+                        throw lastFailure;
+                    }
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            lead();
+            lock.lock();
+            try {
+                if (lastFailure != null && lastFailureTicket >= ticket) {
+                    throw lastFailure;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void lead() {
+            if (windowNanos > 0) {
+                // Give concurrent uploads a moment to join this commit
+                try {
+                    TimeUnit.NANOSECONDS.sleep(windowNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            long target;
+            lock.lock();
+            try {
+                target = requested;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException failure = null;
+            // Waiters must always be released, even if the sync fails with an unchecked exception
+            try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+                channel.force(true);
+                directorySyncs.incrementAndGet();
+            } catch (IOException e) {
+                log.error("Failed to sync directory {}", dir, e);
+                failure = e;
+            } catch (RuntimeException | Error e) {
+                log.error("Failed to sync directory {}", dir, e);
+                failure = new IOException("Failed to sync directory " + dir, e);
+                throw e;
+            } finally {
+                lock.lock();
+                try {
+                    completed = target;
+                    syncing = false;
+                    if (failure != null) {
+                        lastFailure = failure;
+                        lastFailureTicket = target;
+                    }
+                    synced.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
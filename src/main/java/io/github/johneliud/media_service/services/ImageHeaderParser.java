@@ -0,0 +1,183 @@
+package io.github.johneliud.media_service.services;
+
+import java.nio.charset.StandardCharsets;
+
+public final class ImageHeaderParser {
+
+    public enum Format { PNG, JPEG, WEBP }
+
+    public record ImageInfo(Format format, int width, int height, int frames) {
+        public long pixels() {
+            return (long) width * height;
+        }
+    }
+
+    private ImageHeaderParser() {}
+
+    // Returns null when the header is truncated or malformed; never decodes pixel data
+    public static ImageInfo parse(byte[] bytes) {
+        try {
+            if (isPng(bytes)) {
+                return parsePng(bytes);
+            }
+            if (isJpeg(bytes)) {
+                return parseJpeg(bytes);
+            }
+            if (isWebp(bytes)) {
+                return parseWebp(bytes);
+            }
+        } catch (IndexOutOfBoundsException e) {
+            return null;
+        }
+        return null;
+    }
+
+    private static ImageInfo parsePng(byte[] b) {
+        // IHDR must be the first chunk: length(4) "IHDR" width(4) height(4)
+        if (!chunkType(b, 12).equals("IHDR")) {
+            return null;
+        }
+        int width = int32(b, 16);
+        int height = int32(b, 20);
+        int frames = 1;
+
+        // An APNG declares its frame count in acTL, which must precede the first IDAT
+        int pos = 8;
+        while (pos + 8 <= b.length) {
+            int length = int32(b, pos);
+            String type = chunkType(b, pos + 4);
+            if (type.equals("acTL")) {
+                frames = int32(b, pos + 8);
+                break;
+            }
+            if (type.equals("IDAT") || length < 0 || length > b.length) {
+                break;
+            }
+            pos += 12 + length;
+        }
+        return valid(Format.PNG, width, height, frames);
+    }
+
+    private static ImageInfo parseJpeg(byte[] b) {
+        int pos = 2;
+        while (pos + 4 <= b.length) {
+            if ((b[pos] & 0xFF) != 0xFF) {
+                return null;
+            }
+            int marker = b[pos + 1] & 0xFF;
+            if (marker == 0xFF) {
+                pos++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) {
+                pos += 2;
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                // End of image or start of scan reached without a frame header
+                return null;
+            }
+
+            int length = uint16(b, pos + 2);
+            boolean startOfFrame = marker >= 0xC0 && marker <= 0xCF
+                    && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+            if (startOfFrame) {
+                int height = uint16(b, pos + 5);
+                int width = uint16(b, pos + 7);
+                return valid(Format.JPEG, width, height, 1);
+            }
+            pos += 2 + length;
+        }
+        return null;
+    }
+
+    private static ImageInfo parseWebp(byte[] b) {
+        String type = chunkType(b, 12);
+        switch (type) {
+            case "VP8 " -> {
+                // Lossy: 3-byte frame tag, start code 9D 01 2A, then 14-bit width and height
+                if ((b[23] & 0xFF) != 0x9D || (b[24] & 0xFF) != 0x01 || (b[25] & 0xFF) != 0x2A) {
+                    return null;
+                }
+                return valid(Format.WEBP, uint16le(b, 26) & 0x3FFF, uint16le(b, 28) & 0x3FFF, 1);
+            }
+            case "VP8L" -> {
+                // Lossless: signature 0x2F, then 14-bit (width - 1) and (height - 1)
+                if ((b[20] & 0xFF) != 0x2F) {
+                    return null;
+                }
+                int bits = (b[21] & 0xFF) | (b[22] & 0xFF) << 8 | (b[23] & 0xFF) << 16 | (b[24] & 0xFF) << 24;
+                return valid(Format.WEBP, (bits & 0x3FFF) + 1, ((bits >>> 14) & 0x3FFF) + 1, 1);
+            }
+            case "VP8X" -> {
+                // Extended: flags, 3 reserved bytes, 24-bit (canvas width - 1) and (canvas height - 1)
+                boolean animated = (b[20] & 0x02) != 0;
+                int width = uint24le(b, 24) + 1;
+                int height = uint24le(b, 27) + 1;
+                return valid(Format.WEBP, width, height, animated ? countWebpFrames(b) : 1);
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    private static int countWebpFrames(byte[] b) {
+        int frames = 0;
+        int pos = 12;
+        while (pos + 8 <= b.length) {
+            if (chunkType(b, pos).equals("ANMF")) {
+                frames++;
+            }
+            long size = uint32le(b, pos + 4);
+            if (size > b.length) {
+                break;
+            }
+            pos += 8 + (int) (size + (size & 1));
+        }
+        return Math.max(frames, 1);
+    }
+
+    private static ImageInfo valid(Format format, int width, int height, int frames) {
+        if (width <= 0 || height <= 0 || frames <= 0) {
+            return null;
+        }
+        return new ImageInfo(format, width, height, frames);
+    }
+
+    private static boolean isPng(byte[] b) {
+        return b.length >= 24 && (b[0] & 0xFF) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G';
+    }
+
+    private static boolean isJpeg(byte[] b) {
+        return b.length >= 4 && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8;
+    }
+
+    private static boolean isWebp(byte[] b) {
+        return b.length >= 30 && chunkType(b, 0).equals("RIFF") && chunkType(b, 8).equals("WEBP");
+    }
+
+    private static String chunkType(byte[] b, int offset) {
+        return new String(b, offset, 4, StandardCharsets.US_ASCII);
+    }
+
+    private static int int32(byte[] b, int offset) {
+        return (b[offset] & 0xFF) << 24 | (b[offset + 1] & 0xFF) << 16 | (b[offset + 2] & 0xFF) << 8 | (b[offset + 3] & 0xFF);
+    }
+
+    private static int uint16(byte[] b, int offset) {
+        return (b[offset] & 0xFF) << 8 | (b[offset + 1] & 0xFF);
+    }
+
+    private static int uint16le(byte[] b, int offset) {
+        return (b[offset] & 0xFF) | (b[offset + 1] & 0xFF) << 8;
+    }
+
+    private static int uint24le(byte[] b, int offset) {
+        return (b[offset] & 0xFF) | (b[offset + 1] & 0xFF) << 8 | (b[offset + 2] & 0xFF) << 16;
+    }
+
+    private static long uint32le(byte[] b, int offset) {
+        return uint24le(b, offset) | (long) (b[offset + 3] & 0xFF) << 24;
+    }
+}
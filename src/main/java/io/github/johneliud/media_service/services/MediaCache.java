@@ -0,0 +1,150 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.dto.MediaResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class MediaCache {
+    private record Entry<T>(T value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    private final Map<String, Entry<MediaResponse>> media = new ConcurrentHashMap<>();
+    private final Map<String, Entry<List<MediaResponse>>> productMedia = new ConcurrentHashMap<>();
+    // Per-key versions, set from a shared clock on eviction; a load that started before its key was evicted
+    // must not repopulate the cache. Keys without an entry are at the floor, which moves up when versions are pruned
+    private final Map<String, Long> mediaVersions = new ConcurrentHashMap<>();
+    private final Map<String, Long> productVersions = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private volatile long versionFloor;
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    public MediaCache(@Value("${media.cache.enabled:true}") boolean enabled,
+                      @Value("${media.cache.ttl:PT30S}") Duration ttl,
+                      @Value("${media.cache.max-entries:10000}") int maxEntries) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    public long mediaVersion(String mediaId) {
+        return mediaVersions.getOrDefault(mediaId, versionFloor);
+    }
+
+    public long productVersion(String productId) {
+        return productVersions.getOrDefault(productId, versionFloor);
+    }
+
+    // Cached responses are copied in and out so callers can never modify a shared instance
+    public Optional<MediaResponse> getMedia(String mediaId) {
+        return get(media, mediaId).map(MediaCache::copy);
+    }
+
+    public void putMedia(String mediaId, MediaResponse response, long loadedVersion) {
+        put(media, mediaVersions, mediaId, copy(response), loadedVersion);
+    }
+
+    public Optional<List<MediaResponse>> getProductMedia(String productId) {
+        return get(productMedia, productId).map(MediaCache::copy);
+    }
+
+    public void putProductMedia(String productId, List<MediaResponse> responses, long loadedVersion) {
+        put(productMedia, productVersions, productId, copy(responses), loadedVersion);
+    }
+
+    public void evict(List<String> mediaIds, List<String> productIds) {
+        for (String mediaId : mediaIds) {
+            mediaVersions.put(mediaId, clock.incrementAndGet());
+            media.remove(mediaId);
+        }
+        for (String productId : productIds) {
+            productVersions.put(productId, clock.incrementAndGet());
+            productMedia.remove(productId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${media.cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        media.values().removeIf(entry -> entry.isExpired(now));
+        productMedia.values().removeIf(entry -> entry.isExpired(now));
+
+        // Raising the floor first keeps pruned keys ahead of any version a load in flight could have read
+        long floor = clock.incrementAndGet();
+        versionFloor = floor;
+        mediaVersions.values().removeIf(version -> version < floor);
+        productVersions.values().removeIf(version -> version < floor);
+    }
+
+    int size() {
+        return media.size() + productMedia.size();
+    }
+
+    private <T> Optional<T> get(Map<String, Entry<T>> map, String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Entry<T> entry = map.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            map.remove(key, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.value());
+    }
+
+    private <T> void put(Map<String, Entry<T>> map, Map<String, Long> versions, String key, T value,
+                         long loadedVersion) {
+        if (!enabled || loadedVersion != versions.getOrDefault(key, versionFloor)) {
+            return;
+        }
+        if (!map.containsKey(key) && size() >= maxEntries) {
+            // Full: make room by dropping an arbitrary entry; expired ones are left to the scheduled purge
+            if (!removeAny(map) && !removeAny(media) && !removeAny(productMedia)) {
+                return;
+            }
+        }
+        map.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        // An eviction may have raced with this insert; drop the entry rather than risk keeping it
+        if (loadedVersion != versions.getOrDefault(key, versionFloor)) {
+            map.remove(key);
+        }
+    }
+
+    private static boolean removeAny(Map<String, ?> map) {
+        Iterator<String> keys = map.keySet().iterator();
+        if (!keys.hasNext()) {
+            return false;
+        }
+        keys.next();
+        keys.remove();
+        return true;
+    }
+
+    private static MediaResponse copy(MediaResponse response) {
+        return new MediaResponse(response.getId(), response.getImagePath(), response.getProductId(),
+                response.getSellerId(), response.getWidth(), response.getHeight(), response.getPlaceholder());
+    }
+
+    private static List<MediaResponse> copy(List<MediaResponse> responses) {
+        return responses.stream().map(MediaCache::copy).toList();
+    }
+}
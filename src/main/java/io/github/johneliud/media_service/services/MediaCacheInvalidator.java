@@ -0,0 +1,116 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.dto.CacheInvalidationMessage;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+public class MediaCacheInvalidator {
+    private final MediaCache mediaCache;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final String topic;
+    private final int maxBatchSize;
+    private final Set<String> pendingMediaIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingProductIds = ConcurrentHashMap.newKeySet();
+
+    @Getter
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public MediaCacheInvalidator(MediaCache mediaCache,
+                                 KafkaTemplate<String, String> kafkaTemplate,
+                                 ObjectMapper objectMapper,
+                                 @Value("${media.cache.invalidation.topic:media-cache-invalidation}") String topic,
+                                 @Value("${media.cache.invalidation.max-batch-size:500}") int maxBatchSize) {
+        this.mediaCache = mediaCache;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.topic = topic;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public void invalidateMedia(String mediaId, String productId) {
+        mediaCache.evict(List.of(mediaId), productId == null ? List.of() : List.of(productId));
+        pendingMediaIds.add(mediaId);
+        if (productId != null) {
+            pendingProductIds.add(productId);
+        }
+    }
+
+    public void invalidateProduct(String productId) {
+        mediaCache.evict(List.of(), List.of(productId));
+        pendingProductIds.add(productId);
+    }
+
+    public void applyRemote(CacheInvalidationMessage message) {
+        if (instanceId.equals(message.getOrigin())) {
+            return;
+        }
+        List<String> mediaIds = message.getMediaIds() == null ? List.of() : message.getMediaIds();
+        List<String> productIds = message.getProductIds() == null ? List.of() : message.getProductIds();
+        mediaCache.evict(mediaIds, productIds);
+        log.debug("Evicted {} media and {} products on invalidation from {}",
+                mediaIds.size(), productIds.size(), message.getOrigin());
+    }
+
+    @Scheduled(fixedDelayString = "${media.cache.invalidation.flush-interval-ms:200}")
+    public void flush() {
+        if (pendingMediaIds.isEmpty() && pendingProductIds.isEmpty()) {
+            return;
+        }
+
+        List<String> mediaIds = drain(pendingMediaIds);
+        List<String> productIds = drain(pendingProductIds);
+        int total = mediaIds.size() + productIds.size();
+
+        // Split so a burst of deletes never produces an oversized record
+        for (int start = 0; start < total; start += maxBatchSize) {
+            int end = Math.min(total, start + maxBatchSize);
+            List<String> mediaBatch = slice(mediaIds, start, end);
+            List<String> productBatch = slice(productIds, start - mediaIds.size(), end - mediaIds.size());
+            send(new CacheInvalidationMessage(instanceId, mediaBatch, productBatch));
+        }
+    }
+
+    private void send(CacheInvalidationMessage message) {
+        try {
+            kafkaTemplate.send(topic, instanceId, objectMapper.writeValueAsString(message))
+                    .whenComplete((result, e) -> {
+                        if (e != null) {
+                            // Peers fall back to the cache TTL for these entries
+                            log.warn("Failed to publish cache invalidation: {}", e.getMessage());
+                        }
+                    });
+        } catch (Exception e) {
+            log.warn("Failed to publish cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    private List<String> drain(Set<String> pending) {
+        List<String> drained = new ArrayList<>();
+        for (String id : pending) {
+            if (pending.remove(id)) {
+                drained.add(id);
+            }
+        }
+        return drained;
+    }
+
+    private List<String> slice(List<String> ids, int from, int to) {
+        int start = Math.max(0, from);
+        int end = Math.min(ids.size(), to);
+        return start < end ? List.copyOf(ids.subList(start, end)) : List.of();
+    }
+}
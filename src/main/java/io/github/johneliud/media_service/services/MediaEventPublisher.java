@@ -0,0 +1,49 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.event.MediaDeletedEvent;
+import io.github.johneliud.media_service.event.MediaUploadedEvent;
+import io.github.johneliud.media_service.models.Media;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaEventPublisher {
+    public static final String MEDIA_UPLOADED_TOPIC = "media-uploaded";
+    public static final String MEDIA_DELETED_TOPIC = "media-deleted";
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+
+    public void publishUploaded(Media media) {
+        publish(MEDIA_UPLOADED_TOPIC, media, new MediaUploadedEvent(media.getId(), media.getProductId(),
+                media.getSellerId(), media.getImagePath(), media.getWidth(), media.getHeight(),
+                media.getPlaceholder(), Instant.now()));
+    }
+
+    public void publishDeleted(Media media) {
+        publish(MEDIA_DELETED_TOPIC, media, new MediaDeletedEvent(media.getId(), media.getProductId(),
+                media.getSellerId(), Instant.now()));
+    }
+
+    // Keyed by productId so all changes to one product stay ordered on a single partition.
+    // Sends are asynchronous: the producer batches them and a broker outage never fails the request.
+    private void publish(String topic, Media media, Object event) {
+        try {
+            kafkaTemplate.send(topic, media.getProductId(), objectMapper.writeValueAsString(event))
+                    .whenComplete((result, e) -> {
+                        if (e != null) {
+                            log.error("Failed to publish {} event for media {}: {}", topic, media.getId(), e.getMessage());
+                        }
+                    });
+        } catch (Exception e) {
+            log.error("Failed to publish {} event for media {}: {}", topic, media.getId(), e.getMessage());
+        }
+    }
+}
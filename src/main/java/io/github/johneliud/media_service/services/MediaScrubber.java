@@ -0,0 +1,226 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.models.IntegrityStatus;
+import io.github.johneliud.media_service.models.Media;
+import io.github.johneliud.media_service.models.ScrubCheckpoint;
+import io.github.johneliud.media_service.repositories.MediaRepository;
+import io.github.johneliud.media_service.repositories.ScrubCheckpointRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaScrubber {
+    private static final String CHECKPOINT_ID = "media";
+
+    private final MediaRepository mediaRepository;
+    private final ScrubCheckpointRepository scrubCheckpointRepository;
+    private final FileStorageService fileStorageService;
+    private final StorageConcurrencyLimiter storageConcurrencyLimiter;
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${media.scrub.enabled:false}")
+    private boolean enabled;
+
+    @Value("${media.scrub.batch-size:200}")
+    private int batchSize;
+
+    @Value("${media.scrub.time-budget:PT20S}")
+    private Duration timeBudget;
+
+    @Value("${media.scrub.bytes-per-second:4MB}")
+    private DataSize bytesPerSecond;
+
+    @Value("${media.scrub.quarantine:false}")
+    private boolean quarantine;
+
+    @Value("${media.scrub.quarantine-dir:uploads/quarantine}")
+    private String quarantineDir;
+
+    @Scheduled(fixedDelayString = "${media.scrub.interval-ms:60000}")
+    public void scheduledScrub() {
+        if (!enabled) {
+            return;
+        }
+        // Foreground traffic owns the disk: skip this round while storage is under pressure
+        if (storageConcurrencyLimiter.getInFlight() * 2 >= storageConcurrencyLimiter.getLimit()) {
+            log.debug("Skipping scrub round: storage is busy");
+            return;
+        }
+        scrub();
+    }
+
+    public int scrub() {
+        ScrubCheckpoint checkpoint = scrubCheckpointRepository.findById(CHECKPOINT_ID)
+                .orElseGet(() -> new ScrubCheckpoint(CHECKPOINT_ID, null, Instant.now(), 0, 0));
+
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+        long roundStart = System.nanoTime();
+        long bytesRead = 0;
+        int processed = 0;
+
+        while (System.nanoTime() < deadline) {
+            Pageable page = PageRequest.of(0, batchSize, Sort.by("id"));
+            List<Media> batch = checkpoint.getLastMediaId() == null
+                    ? mediaRepository.findAll(page).getContent()
+                    : mediaRepository.findByIdGreaterThan(checkpoint.getLastMediaId(), page);
+
+            for (Media media : batch) {
+                bytesRead += verify(media, checkpoint);
+                processed++;
+                checkpoint.setLastMediaId(media.getId());
+                checkpoint.setScanned(checkpoint.getScanned() + 1);
+                throttle(roundStart, bytesRead);
+                if (System.nanoTime() >= deadline) {
+                    break;
+                }
+            }
+
+            if (batch.size() < batchSize && System.nanoTime() < deadline) {
+                if (checkpoint.getScanned() > 0) {
+                    log.info("Scrub pass completed: {} media scanned, {} mismatches, started {}",
+                            checkpoint.getScanned(), checkpoint.getMismatches(), checkpoint.getPassStartedAt());
+                }
+                checkpoint = new ScrubCheckpoint(CHECKPOINT_ID, null, Instant.now(), 0, 0);
+                break;
+            }
+            scrubCheckpointRepository.save(checkpoint);
+        }
+
+        scrubCheckpointRepository.save(checkpoint);
+        return processed;
+    }
+
+    private long verify(Media media, ScrubCheckpoint checkpoint) {
+        Path filePath = fileStorageService.getMediaPath(media.getImagePath());
+        IntegrityStatus status;
+        long size = 0;
+        String checksum = null;
+
+        try {
+            if (!Files.exists(filePath)) {
+                status = IntegrityStatus.MISSING;
+            } else {
+                MessageDigest digest = FileStorageService.newChecksumDigest();
+                try (InputStream in = Files.newInputStream(filePath)) {
+                    byte[] buffer = new byte[64 * 1024];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                        size += read;
+                    }
+                }
+                checksum = HexFormat.of().formatHex(digest.digest());
+
+                if (media.getFileSize() != null && media.getFileSize() != size) {
+                    status = IntegrityStatus.SIZE_MISMATCH;
+                } else if (media.getChecksum() != null && !media.getChecksum().equals(checksum)) {
+                    status = IntegrityStatus.CHECKSUM_MISMATCH;
+                } else {
+                    status = IntegrityStatus.OK;
+                }
+            }
+        } catch (IOException e) {
+            if (movedOrDeleted(media, filePath)) {
+                return size;
+            }
+            log.error("Scrub failed to read media {}: {}", media.getId(), e.getMessage());
+            return size;
+        }
+
+        // A tier move or delete can race the read; only a file that is still where the document says it is
+        // can be reported
+        if (status != IntegrityStatus.OK && movedOrDeleted(media, filePath)) {
+            return size;
+        }
+
+        Update update = new Update()
+                .set("integrityStatus", status)
+                .set("integrityCheckedAt", Instant.now());
+        if (status == IntegrityStatus.OK && media.getChecksum() == null) {
+            // Media stored before checksums existed: record the current file as the reference
+            update.set("fileSize", size).set("checksum", checksum);
+        }
+
+        if (status != IntegrityStatus.OK) {
+            checkpoint.setMismatches(checkpoint.getMismatches() + 1);
+            meterRegistry.counter("media.scrub.mismatches", "status", status.name().toLowerCase()).increment();
+            log.warn("Scrub found {} for media {} ({}): expected size {}, checksum {}; found size {}, checksum {}",
+                    status, media.getId(), media.getImagePath(), media.getFileSize(), media.getChecksum(),
+                    size, checksum);
+            if (quarantine && status != IntegrityStatus.MISSING) {
+                quarantine(media, filePath);
+            }
+        }
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(media.getId())), update, Media.class);
+        return size;
+    }
+
+    private boolean movedOrDeleted(Media media, Path filePath) {
+        Optional<Media> current = mediaRepository.findById(media.getId());
+        if (current.isEmpty()
+                || current.get().getStorageTier() != media.getStorageTier()
+                || !fileStorageService.getMediaPath(current.get().getImagePath()).equals(filePath)) {
+            log.debug("Skipping scrub result for media {}: moved or deleted while it was checked", media.getId());
+            return true;
+        }
+        return false;
+    }
+
+    private void quarantine(Media media, Path filePath) {
+        try {
+            Path target = Paths.get(quarantineDir);
+            Files.createDirectories(target);
+            Files.move(filePath, target.resolve(filePath.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            log.warn("Quarantined media file {} for media {}", filePath.getFileName(), media.getId());
+        } catch (IOException e) {
+            log.error("Failed to quarantine media file {}", filePath, e);
+        }
+    }
+
+    private void throttle(long roundStart, long bytesRead) {
+        long budget = bytesPerSecond.toBytes();
+        if (budget <= 0) {
+            return;
+        }
+
+        long expectedNanos = (long) (bytesRead * 1e9 / budget);
+        long aheadNanos = expectedNanos - (System.nanoTime() - roundStart);
+        if (aheadNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.johneliud.media_service.services;
 
 import io.github.johneliud.media_service.dto.MediaResponse;
+import io.github.johneliud.media_service.dto.StoredMedia;
 import io.github.johneliud.media_service.models.Media;
 import io.github.johneliud.media_service.repositories.ActiveOrderProductRepository;
 import io.github.johneliud.media_service.repositories.MediaRepository;
@@ -9,6 +10,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -16,6 +23,12 @@ public class MediaService {
     private final MediaRepository mediaRepository;
     private final FileStorageService fileStorageService;
     private final ActiveOrderProductRepository activeOrderProductRepository;
+    private final MediaCache mediaCache;
+    private final MediaCacheInvalidator mediaCacheInvalidator;
+    private final MediaEventPublisher mediaEventPublisher;
+    private final StorageUsageService storageUsageService;
+    private final DuplicateDetectionService duplicateDetectionService;
+    private final SingleFlight<String, MediaResponse> mediaLookups = new SingleFlight<>();
 
     public MediaResponse uploadMedia(MultipartFile file, String productId, String sellerId) {
         log.info("Attempting to upload media for productId: {}, sellerId: {}", productId, sellerId);
@@ -25,64 +38,162 @@ public class MediaService {
             throw new IllegalArgumentException("productId is required");
         }
 
-        String imagePath = fileStorageService.storeMedia(file);
+        StoredMedia stored = storeWithinQuota(sellerId, file.getSize(), () -> fileStorageService.storeMedia(file));
+        return saveMedia(stored, productId, sellerId);
+    }
+
+    public MediaResponse uploadMedia(Path source, String originalFilename, String contentType,
+                                     String productId, String sellerId) {
+        log.info("Attempting to upload assembled media for productId: {}, sellerId: {}", productId, sellerId);
+
+        if (productId == null || productId.isBlank()) {
+            log.warn("Media upload failed: productId is required");
+            throw new IllegalArgumentException("productId is required");
+        }
+
+        StoredMedia stored = storeWithinQuota(sellerId, source.toFile().length(),
+                () -> fileStorageService.storeMedia(source, originalFilename, contentType));
+        return saveMedia(stored, productId, sellerId);
+    }
+
+    // The quota lookup (MongoDB) and the staged write (disk) are independent, so they run side by side
+    private StoredMedia storeWithinQuota(String sellerId, long size, Supplier<StoredMedia> store) {
+        AtomicReference<StoredMedia> stored = new AtomicReference<>();
+        try (StructuredTasks tasks = StructuredTasks.open()) {
+            tasks.fork(() -> storageUsageService.checkQuota(sellerId, size));
+            tasks.fork(() -> stored.set(store.get()));
+            tasks.joinUninterruptibly();
+        } catch (RuntimeException e) {
+            // Every subtask has finished here; a write that completed before the quota was rejected is removed
+            if (stored.get() != null) {
+                fileStorageService.deleteMedia(stored.get().getFilename());
+            }
+            throw e;
+        }
+        return stored.get();
+    }
+
+    private MediaResponse saveMedia(StoredMedia stored, String productId, String sellerId) {
+        Optional<Media> duplicate = duplicateDetectionService.findProductDuplicate(sellerId, productId,
+                stored.getPerceptualHash());
+        if (duplicate.isPresent()) {
+            fileStorageService.deleteMedia(stored.getFilename());
+            if (duplicateDetectionService.getUploadMode() == DuplicateDetectionService.UploadMode.REJECT) {
+                log.warn("Media upload rejected: duplicates media {} of product {}", duplicate.get().getId(), productId);
+                throw new IllegalArgumentException("This image already exists for the product");
+            }
+            log.info("Media upload linked to existing media {} for productId: {}", duplicate.get().getId(), productId);
+            return toMediaResponse(duplicate.get());
+        }
 
         Media media = new Media();
-        media.setImagePath(imagePath);
+        media.setImagePath(stored.getFilename());
+        media.setFileSize(stored.getSize());
+        media.setChecksum(stored.getChecksum());
+        media.setWidth(stored.getWidth());
+        media.setHeight(stored.getHeight());
+        media.setPlaceholder(stored.getPlaceholder());
+        media.setPerceptualHash(stored.getPerceptualHash());
         media.setProductId(productId);
         media.setSellerId(sellerId);
+        media.setLastAccessedAt(Instant.now());
 
-        Media savedMedia = mediaRepository.save(media);
+        Media savedMedia;
+        try (ServerTiming.Stage stage = ServerTiming.start("db")) {
+            savedMedia = mediaRepository.save(media);
+        }
+        storageUsageService.recordUpload(savedMedia);
+        mediaCacheInvalidator.invalidateProduct(productId);
+        mediaEventPublisher.publishUploaded(savedMedia);
         log.info("Media uploaded successfully with ID: {} for productId: {}", savedMedia.getId(), productId);
 
         return toMediaResponse(savedMedia);
     }
 
     public MediaResponse getMediaById(String id) {
-        log.info("Fetching media by ID: {}", id);
+        log.debug("Fetching media by ID: {}", id);
         
-        Media media = mediaRepository.findById(id)
-            .orElseThrow(() -> {
-                log.warn("Media not found with ID: {}", id);
-                return new IllegalArgumentException("Media not found");
-            });
+        Optional<MediaResponse> cached = mediaCache.getMedia(id);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
         
-        log.info("Media retrieved successfully: {}", id);
-        return toMediaResponse(media);
+        // Concurrent misses for the same id share one lookup
+        return mediaLookups.execute(id, () -> loadMediaById(id));
+    }
+
+    private MediaResponse loadMediaById(String id) {
+        long version = mediaCache.mediaVersion(id);
+        Media media;
+        try (ServerTiming.Stage stage = ServerTiming.start("db")) {
+            media = mediaRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Media not found with ID: {}", id);
+                    return new IllegalArgumentException("Media not found");
+                });
+        }
+        
+        log.debug("Media retrieved successfully: {}", id);
+        MediaResponse response = toMediaResponse(media);
+        mediaCache.putMedia(id, response, version);
+        return response;
     }
 
     public java.util.List<MediaResponse> getMediaByProductId(String productId) {
-        log.info("Fetching media for productId: {}", productId);
+        log.debug("Fetching media for productId: {}", productId);
+        
+        Optional<java.util.List<MediaResponse>> cached = mediaCache.getProductMedia(productId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
         
-        java.util.List<Media> mediaList = mediaRepository.findByProductId(productId);
+        long version = mediaCache.productVersion(productId);
+        java.util.List<Media> mediaList;
+        try (ServerTiming.Stage stage = ServerTiming.start("db")) {
+            mediaList = mediaRepository.findByProductId(productId);
+        }
         
-        log.info("Retrieved {} media items for productId: {}", mediaList.size(), productId);
-        return mediaList.stream()
-            .map(this::toMediaResponse)
+        log.debug("Retrieved {} media items for productId: {}", mediaList.size(), productId);
+        java.util.List<MediaResponse> responses = mediaList.stream()
+            .map(MediaService::toMediaResponse)
             .collect(java.util.stream.Collectors.toList());
+        mediaCache.putProductMedia(productId, responses, version);
+        return responses;
     }
 
     public void deleteMedia(String id, String sellerId) {
         log.info("Attempting to delete media with ID: {} by seller: {}", id, sellerId);
         
-        Media media = mediaRepository.findById(id)
-            .orElseThrow(() -> {
-                log.warn("Media deletion failed: Media not found - {}", id);
-                return new IllegalArgumentException("Media not found");
-            });
+        Media media;
+        try (ServerTiming.Stage stage = ServerTiming.start("db")) {
+            media = mediaRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Media deletion failed: Media not found - {}", id);
+                    return new IllegalArgumentException("Media not found");
+                });
+        }
         
         if (!media.getSellerId().equals(sellerId)) {
             log.warn("Media deletion failed: Seller {} does not own media {}", sellerId, id);
             throw new IllegalArgumentException("You do not have permission to delete this media");
         }
 
-        if (activeOrderProductRepository.existsByProductIdsContaining(media.getProductId())) {
+        boolean hasActiveOrders;
+        try (ServerTiming.Stage stage = ServerTiming.start("guard")) {
+            hasActiveOrders = activeOrderProductRepository.existsByProductIdsContaining(media.getProductId());
+        }
+        if (hasActiveOrders) {
             log.warn("Media deletion blocked: product {} has active orders", media.getProductId());
             throw new IllegalArgumentException("Cannot delete media for a product that has active orders");
         }
 
         fileStorageService.deleteMedia(media.getImagePath());
-        mediaRepository.deleteById(id);
+        try (ServerTiming.Stage stage = ServerTiming.start("db")) {
+            mediaRepository.deleteById(id);
+        }
+        storageUsageService.recordDelete(media);
+        mediaCacheInvalidator.invalidateMedia(id, media.getProductId());
+        mediaEventPublisher.publishDeleted(media);
         
         log.info("Media deleted successfully: {}", id);
     }
@@ -99,16 +210,19 @@ public class MediaService {
         
         log.info("Retrieved {} media items for sellerId: {}", mediaList.size(), sellerId);
         return mediaList.stream()
-            .map(this::toMediaResponse)
+            .map(MediaService::toMediaResponse)
             .collect(java.util.stream.Collectors.toList());
     }
 
-    private MediaResponse toMediaResponse(Media media) {
+    static MediaResponse toMediaResponse(Media media) {
         return new MediaResponse(
             media.getId(),
             media.getImagePath(),
             media.getProductId(),
-            media.getSellerId()
+            media.getSellerId(),
+            media.getWidth(),
+            media.getHeight(),
+            media.getPlaceholder()
         );
     }
 }
@@ -0,0 +1,180 @@
+package io.github.johneliud.media_service.services;
+
+import com.mongodb.client.result.UpdateResult;
+import io.github.johneliud.media_service.exception.StorageOverloadedException;
+import io.github.johneliud.media_service.models.Media;
+import io.github.johneliud.media_service.models.StorageTier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+public class MediaTieringService {
+    private final MongoTemplate mongoTemplate;
+    private final FileStorageService fileStorageService;
+    private final StorageConcurrencyLimiter storageConcurrencyLimiter;
+    private final boolean enabled;
+    private final Duration coldAfter;
+    private final int batchSize;
+    private final boolean promoteOnRead;
+
+    // Latest access per media since the last flush; repeated reads collapse into one write
+    private final Map<String, Instant> pendingAccesses = new ConcurrentHashMap<>();
+
+    public MediaTieringService(MongoTemplate mongoTemplate,
+                               FileStorageService fileStorageService,
+                               StorageConcurrencyLimiter storageConcurrencyLimiter,
+                               @Value("${media.tiering.enabled:false}") boolean enabled,
+                               @Value("${media.tiering.cold-after:P30D}") Duration coldAfter,
+                               @Value("${media.tiering.batch-size:200}") int batchSize,
+                               @Value("${media.tiering.promote-on-read:false}") boolean promoteOnRead) {
+        this.mongoTemplate = mongoTemplate;
+        this.fileStorageService = fileStorageService;
+        this.storageConcurrencyLimiter = storageConcurrencyLimiter;
+        this.enabled = enabled;
+        this.coldAfter = coldAfter;
+        this.batchSize = batchSize;
+        this.promoteOnRead = promoteOnRead;
+    }
+
+    public void recordAccess(String mediaId) {
+        if (enabled) {
+            pendingAccesses.put(mediaId, Instant.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${media.tiering.access-flush-interval-ms:30000}")
+    public void flushAccesses() {
+        if (pendingAccesses.isEmpty()) {
+            return;
+        }
+
+        Map<String, Instant> accesses = new HashMap<>();
+        for (String mediaId : pendingAccesses.keySet()) {
+            Instant accessedAt = pendingAccesses.remove(mediaId);
+            if (accessedAt != null) {
+                accesses.put(mediaId, accessedAt);
+            }
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Media.class);
+        accesses.forEach((mediaId, accessedAt) -> bulk.updateOne(
+                Query.query(Criteria.where("id").is(mediaId)), new Update().set("lastAccessedAt", accessedAt)));
+        try {
+            bulk.execute();
+            log.debug("Flushed last-access times for {} media", accesses.size());
+        } catch (RuntimeException e) {
+            // Access times only steer migration; losing one flush at worst demotes an image a little early
+            log.warn("Failed to flush last-access times for {} media: {}", accesses.size(), e.getMessage());
+            return;
+        }
+
+        if (promoteOnRead) {
+            promote(accesses.keySet());
+        }
+    }
+
+    private void promote(Iterable<String> mediaIds) {
+        Query coldQuery = Query.query(Criteria.where("id").in(mediaIds).and("storageTier").is(StorageTier.COLD));
+        for (Media media : mongoTemplate.find(coldQuery, Media.class)) {
+            try {
+                if (fileStorageService.promote(media.getImagePath())) {
+                    setTier(media, StorageTier.HOT);
+                }
+            } catch (StorageOverloadedException e) {
+                log.debug("Deferring promotion of media {}: storage is busy", media.getId());
+                return;
+            } catch (IOException e) {
+                log.error("Failed to promote media {} to the hot tier: {}", media.getId(), e.getMessage());
+            }
+        }
+    }
+
+    // The first round waits for access flushes, so recently read media are not mistaken for idle
+    @Scheduled(initialDelayString = "${media.tiering.migration-initial-delay-ms:300000}",
+            fixedDelayString = "${media.tiering.migration-interval-ms:3600000}")
+    public void scheduledMigration() {
+        if (!enabled) {
+            return;
+        }
+        // Foreground traffic owns the disk: skip this round while storage is under pressure
+        if (storageConcurrencyLimiter.getInFlight() * 2 >= storageConcurrencyLimiter.getLimit()) {
+            log.debug("Skipping tiering round: storage is busy");
+            return;
+        }
+        migrate();
+    }
+
+    public int migrate() {
+        Instant now = Instant.now();
+        Instant cutoff = now.minus(coldAfter);
+        String lastId = null;
+        int demoted = 0;
+
+        // Media with no recorded access (uploaded or created before tiering was enabled) start their idle clock now
+        mongoTemplate.updateMulti(Query.query(Criteria.where("lastAccessedAt").is(null)),
+                new Update().set("lastAccessedAt", now), Media.class);
+
+        while (true) {
+            Criteria criteria = Criteria.where("storageTier").ne(StorageTier.COLD).and("lastAccessedAt").lt(cutoff);
+            if (lastId != null) {
+                criteria = new Criteria().andOperator(criteria, Criteria.where("id").gt(lastId));
+            }
+            List<Media> batch = mongoTemplate.find(
+                    Query.query(criteria).with(Sort.by("id")).limit(batchSize), Media.class);
+
+            for (Media media : batch) {
+                lastId = media.getId();
+                try {
+                    // A missing hot file is left for the scrubber to report
+                    if (fileStorageService.demote(media.getImagePath()) && setTier(media, StorageTier.COLD)) {
+                        demoted++;
+                    }
+                } catch (StorageOverloadedException e) {
+                    log.info("Stopping tiering round after {} media: storage is busy", demoted);
+                    return demoted;
+                } catch (IOException e) {
+                    log.error("Failed to move media {} to the cold tier: {}", media.getId(), e.getMessage());
+                }
+            }
+
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        log.info("Tiering round completed: {} media moved to the cold tier", demoted);
+        return demoted;
+    }
+
+    private boolean setTier(Media media, StorageTier tier) {
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("id").is(media.getId()).and("storageTier").ne(tier)),
+                new Update().set("storageTier", tier), Media.class);
+        if (result.getMatchedCount() > 0) {
+            return true;
+        }
+        // Deleted while its file was being moved: the delete already ran, so the copy just published is an orphan
+        if (!mongoTemplate.exists(Query.query(Criteria.where("id").is(media.getId())), Media.class)) {
+            log.info("Media {} was deleted during its tier move, removing the moved file", media.getId());
+            fileStorageService.deleteMedia(media.getImagePath());
+        }
+        return false;
+    }
+}
@@ -0,0 +1,245 @@
+package io.github.johneliud.media_service.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+@Service
+@Slf4j
+public class MediaVariantService {
+    private static final int MAX_NEGATIVE_ENTRIES = 10_000;
+
+    private final FileStorageService fileStorageService;
+    private final boolean enabled;
+    private final List<String> formats;
+    private final float quality;
+    private final Semaphore generationSlots;
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+    private final Set<String> notBeneficial = ConcurrentHashMap.newKeySet();
+
+    public record Variant(String contentType, String extension) {}
+
+    public MediaVariantService(FileStorageService fileStorageService,
+                               @Value("${media.variants.enabled:true}") boolean enabled,
+                               @Value("${media.variants.formats:image/avif,image/webp,image/jpeg}") List<String> formats,
+                               @Value("${media.variants.quality:0.8}") float quality,
+                               @Value("${media.variants.max-concurrent-generations:2}") int maxConcurrentGenerations) {
+        this.fileStorageService = fileStorageService;
+        this.enabled = enabled;
+        // Only formats this JVM can actually encode take part in negotiation
+        this.formats = formats.stream()
+                .map(String::strip)
+                .filter(format -> ImageIO.getImageWritersByMIMEType(format).hasNext())
+                .toList();
+        this.quality = quality;
+        this.generationSlots = new Semaphore(maxConcurrentGenerations);
+        log.info("Media variant formats available: {}", this.formats);
+    }
+
+    public Optional<Variant> negotiate(String filename, String originalType, String accept) {
+        if (!enabled || accept == null || accept.isBlank()) {
+            return Optional.empty();
+        }
+
+        for (String candidate : acceptableAlternates(originalType, accept)) {
+            if (notBeneficial.contains(key(filename, candidate))) {
+                continue;
+            }
+
+            String extension = extensionFor(candidate);
+            if (fileStorageService.hasVariant(filename, extension)) {
+                return Optional.of(new Variant(candidate, extension));
+            }
+            // Serve the next best option now and build this one in the background for later requests
+            scheduleGeneration(filename, candidate);
+        }
+        return Optional.empty();
+    }
+
+    List<String> acceptableAlternates(String originalType, String accept) {
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            log.debug("Ignoring malformed Accept header: {}", accept);
+            return List.of();
+        }
+
+        List<String> alternates = new ArrayList<>();
+        for (String format : formats) {
+            if (format.equalsIgnoreCase(originalType)) {
+                continue;
+            }
+            MediaType type = MediaType.parseMediaType(format);
+            // Only an explicit match counts: on a wildcard the client gets the format that was uploaded
+            boolean explicitlyAccepted = false;
+            boolean rejected = false;
+            for (MediaType range : accepted) {
+                if (range.equalsTypeAndSubtype(type)) {
+                    if (range.getQualityValue() > 0) {
+                        explicitlyAccepted = true;
+                    } else {
+                        rejected = true;
+                    }
+                }
+            }
+            if (explicitlyAccepted && !rejected) {
+                alternates.add(format);
+            }
+        }
+        return alternates;
+    }
+
+    private void scheduleGeneration(String filename, String contentType) {
+        String key = key(filename, contentType);
+        if (!inProgress.add(key)) {
+            return;
+        }
+        if (!generationSlots.tryAcquire()) {
+            // Busy: a later request for this media will try again
+            inProgress.remove(key);
+            return;
+        }
+
+        Thread.ofVirtual().name("media-variant").start(() -> {
+            try {
+                generateVariant(filename, contentType);
+            } catch (Exception e) {
+                log.warn("Failed to generate {} variant of {}: {}", contentType, filename, e.getMessage());
+            } finally {
+                generationSlots.release();
+                inProgress.remove(key);
+            }
+        });
+    }
+
+    boolean generateVariant(String filename, String contentType) throws IOException {
+        Optional<byte[]> original = fileStorageService.loadMedia(filename);
+        if (original.isEmpty()) {
+            return false;
+        }
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(original.get()));
+        if (image == null) {
+            markNotBeneficial(filename, contentType);
+            return false;
+        }
+
+        if (contentType.equals("image/jpeg")) {
+            if (hasTransparency(image)) {
+                markNotBeneficial(filename, contentType);
+                return false;
+            }
+            image = toRgb(image);
+        }
+
+        byte[] encoded = encode(image, contentType);
+        if (encoded == null || encoded.length >= original.get().length) {
+            log.info("Discarding {} variant of {}: {} bytes is not smaller than the original {} bytes",
+                    contentType, filename, encoded == null ? 0 : encoded.length, original.get().length);
+            markNotBeneficial(filename, contentType);
+            return false;
+        }
+
+        fileStorageService.storeVariant(filename, extensionFor(contentType), encoded);
+        log.info("Stored {} variant of {}: {} bytes instead of {}", contentType, filename,
+                encoded.length, original.get().length);
+        return true;
+    }
+
+    private byte[] encode(BufferedImage image, String contentType) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(contentType);
+        if (!writers.hasNext()) {
+            return null;
+        }
+
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private boolean hasTransparency(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) {
+            return false;
+        }
+        WritableRaster alpha = image.getAlphaRaster();
+        if (alpha == null) {
+            return false;
+        }
+        int[] row = new int[alpha.getWidth()];
+        for (int y = 0; y < alpha.getHeight(); y++) {
+            alpha.getSamples(0, y, alpha.getWidth(), 1, 0, row);
+            for (int value : row) {
+                if (value != 255) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+        return rgb;
+    }
+
+    private void markNotBeneficial(String filename, String contentType) {
+        if (notBeneficial.size() >= MAX_NEGATIVE_ENTRIES) {
+            notBeneficial.clear();
+        }
+        notBeneficial.add(key(filename, contentType));
+    }
+
+    private String key(String filename, String contentType) {
+        return filename + "|" + contentType;
+    }
+
+    static String extensionFor(String contentType) {
+        return switch (contentType) {
+            case "image/jpeg" -> "jpg";
+            default -> contentType.substring(contentType.indexOf('/') + 1);
+        };
+    }
+}
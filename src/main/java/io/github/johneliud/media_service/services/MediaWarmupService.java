@@ -0,0 +1,60 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.dto.MediaResponse;
+import io.github.johneliud.media_service.exception.StorageOverloadedException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaWarmupService {
+    private final PopularityTracker popularityTracker;
+    private final MediaService mediaService;
+    private final FileStorageService fileStorageService;
+
+    @Value("${media.popularity.warmup-enabled:true}")
+    private boolean warmupEnabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpInBackground() {
+        if (!warmupEnabled) {
+            return;
+        }
+        Thread.ofVirtual().name("media-warmup").start(this::warmUp);
+    }
+
+    public int warmUp() {
+        List<String> mediaIds = popularityTracker.readSnapshot();
+        if (mediaIds.isEmpty()) {
+            return 0;
+        }
+
+        log.info("Warming up {} popular media items", mediaIds.size());
+        long start = System.currentTimeMillis();
+        int warmed = 0;
+        for (String mediaId : mediaIds) {
+            try {
+                MediaResponse media = mediaService.getMediaById(mediaId);
+                if (fileStorageService.loadMedia(media.getImagePath()).isPresent()) {
+                    warmed++;
+                }
+            } catch (StorageOverloadedException e) {
+                log.warn("Stopping media warm-up after {} items: storage is busy", warmed);
+                break;
+            } catch (Exception e) {
+                log.debug("Skipping warm-up of media {}: {}", mediaId, e.getMessage());
+            }
+        }
+
+        log.info("Warmed up {} of {} popular media items in {}ms", warmed, mediaIds.size(),
+                System.currentTimeMillis() - start);
+        return warmed;
+    }
+}
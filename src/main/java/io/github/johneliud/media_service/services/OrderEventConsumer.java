@@ -24,11 +24,8 @@ public class OrderEventConsumer {
 
     @KafkaListener(topics = "order-placed", groupId = "media-service")
     public void handleOrderPlacedMessage(String message) {
-        try {
-            handleOrderPlaced(objectMapper.readValue(message, OrderPlacedEvent.class));
-        } catch (Exception e) {
-            log.error("Failed to deserialize order-placed event: {}", e.getMessage());
-        }
+        // Failures propagate to the retry topics; malformed payloads go straight to the dead-letter topic
+        handleOrderPlaced(objectMapper.readValue(message, OrderPlacedEvent.class));
     }
 
     public void handleOrderPlaced(OrderPlacedEvent event) {
@@ -42,11 +39,8 @@ public class OrderEventConsumer {
 
     @KafkaListener(topics = "order-status-changed", groupId = "media-service")
     public void handleOrderStatusChangedMessage(String message) {
-        try {
-            handleOrderStatusChanged(objectMapper.readValue(message, OrderStatusChangedEvent.class));
-        } catch (Exception e) {
-            log.error("Failed to deserialize order-status-changed event: {}", e.getMessage());
-        }
+        // Failures propagate to the retry topics; malformed payloads go straight to the dead-letter topic
+        handleOrderStatusChanged(objectMapper.readValue(message, OrderStatusChangedEvent.class));
     }
 
     public void handleOrderStatusChanged(OrderStatusChangedEvent event) {
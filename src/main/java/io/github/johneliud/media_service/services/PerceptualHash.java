@@ -0,0 +1,51 @@
+package io.github.johneliud.media_service.services;
+
+import java.awt.image.BufferedImage;
+
+public final class PerceptualHash {
+    private static final int COLUMNS = 9;
+    private static final int ROWS = 8;
+
+    private PerceptualHash() {}
+
+    // 64-bit difference hash: the image is box-filtered to 9x8 luminance cells and each bit records whether
+    // a cell is brighter than its right neighbour. Re-encoding, resizing and small crops flip only a few bits.
+    // Returns null for images too small to fill the grid.
+    public static Long dHash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width < COLUMNS || height < ROWS) {
+            return null;
+        }
+
+        double[] sums = new double[COLUMNS * ROWS];
+        int[] counts = new int[COLUMNS * ROWS];
+        for (int y = 0; y < height; y++) {
+            int row = y * ROWS / height;
+            for (int x = 0; x < width; x++) {
+                int rgb = image.getRGB(x, y);
+                double luminance = 0.299 * (rgb >> 16 & 0xFF) + 0.587 * (rgb >> 8 & 0xFF) + 0.114 * (rgb & 0xFF);
+                int cell = row * COLUMNS + x * COLUMNS / width;
+                sums[cell] += luminance;
+                counts[cell]++;
+            }
+        }
+
+        long hash = 0;
+        int bit = 0;
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS - 1; column++) {
+                int cell = row * COLUMNS + column;
+                if (sums[cell] / counts[cell] > sums[cell + 1] / counts[cell + 1]) {
+                    hash |= 1L << bit;
+                }
+                bit++;
+            }
+        }
+        return hash;
+    }
+
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+}
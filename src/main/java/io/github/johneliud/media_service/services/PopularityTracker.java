@@ -0,0 +1,116 @@
+package io.github.johneliud.media_service.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+public class PopularityTracker {
+    private final CountMinSketch sketch;
+    private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+    private final int topK;
+    private final Path snapshotPath;
+
+    // Estimate a media id needs to enter the candidate set once it is full
+    private volatile long admissionThreshold;
+
+    public PopularityTracker(@Value("${media.popularity.sketch-depth:4}") int depth,
+                             @Value("${media.popularity.sketch-width:8192}") int width,
+                             @Value("${media.popularity.top-k:500}") int topK,
+                             @Value("${media.popularity.snapshot-path:uploads/popular-media.txt}") String snapshotPath) {
+        this.sketch = new CountMinSketch(depth, width);
+        this.topK = topK;
+        this.snapshotPath = Paths.get(snapshotPath);
+    }
+
+    public void record(String mediaId) {
+        long estimate = sketch.add(mediaId);
+        if (estimate < admissionThreshold && !candidates.containsKey(mediaId)) {
+            return;
+        }
+
+        candidates.put(mediaId, estimate);
+        if (candidates.size() > topK * 2) {
+            prune();
+        }
+    }
+
+    public List<String> topMedia() {
+        return candidates.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(topK)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${media.popularity.decay-interval-ms:600000}")
+    public void decay() {
+        sketch.decay();
+        candidates.replaceAll((mediaId, count) -> sketch.estimate(mediaId));
+        candidates.values().removeIf(count -> count == 0);
+        admissionThreshold >>>= 1;
+    }
+
+    @Scheduled(fixedDelayString = "${media.popularity.snapshot-interval-ms:300000}",
+            initialDelayString = "${media.popularity.snapshot-interval-ms:300000}")
+    public void writeSnapshot() {
+        List<String> top = topMedia();
+        if (top.isEmpty()) {
+            return;
+        }
+
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "popular-media", ".tmp");
+            Files.write(temp, top);
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote popularity snapshot with {} media ids", top.size());
+        } catch (IOException e) {
+            log.error("Failed to write popularity snapshot to {}", snapshotPath, e);
+        }
+    }
+
+    public List<String> readSnapshot() {
+        if (!Files.exists(snapshotPath)) {
+            return List.of();
+        }
+
+        try {
+            return Files.readAllLines(snapshotPath).stream()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty())
+                    .limit(topK)
+                    .toList();
+        } catch (IOException e) {
+            log.error("Failed to read popularity snapshot from {}", snapshotPath, e);
+            return List.of();
+        }
+    }
+
+    private synchronized void prune() {
+        if (candidates.size() <= topK * 2) {
+            return;
+        }
+
+        List<Map.Entry<String, Long>> ranked = candidates.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
+                .toList();
+        for (Map.Entry<String, Long> evicted : ranked.subList(topK, ranked.size())) {
+            candidates.remove(evicted.getKey(), evicted.getValue());
+        }
+        admissionThreshold = ranked.get(topK - 1).getValue();
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.johneliud.media_service.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class RequestLogSampler {
+    private final Map<String, Integer> rates = new HashMap<>();
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final int defaultRate;
+    private final long slowThresholdNanos;
+
+    public RequestLogSampler(@Value("${media.logging.sampling.default-rate:1}") int defaultRate,
+                             @Value("${media.logging.sampling.rates:get-media:100,get-product-media:10}") List<String> rates,
+                             @Value("${media.logging.sampling.slow-threshold:PT0.5S}") Duration slowThreshold) {
+        this.defaultRate = Math.max(1, defaultRate);
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        for (String entry : rates) {
+            int separator = entry.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid log sampling rate: " + entry);
+            }
+            this.rates.put(entry.substring(0, separator).strip(),
+                    Math.max(1, Integer.parseInt(entry.substring(separator + 1).strip())));
+        }
+    }
+
+    // Slow requests are always logged; the rest 1-in-N per endpoint. Failures are logged by GlobalExceptionHandler
+    public boolean shouldLog(String endpoint, long elapsedNanos) {
+        if (elapsedNanos >= slowThresholdNanos) {
+            return true;
+        }
+        int rate = rates.getOrDefault(endpoint, defaultRate);
+        if (rate == 1) {
+            return true;
+        }
+        return counters.computeIfAbsent(endpoint, key -> new AtomicLong()).getAndIncrement() % rate == 0;
+    }
+
+    public boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= slowThresholdNanos;
+    }
+}
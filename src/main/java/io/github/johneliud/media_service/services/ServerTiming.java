@@ -0,0 +1,106 @@
+package io.github.johneliud.media_service.services;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+public final class ServerTiming {
+    public static final String HEADER = "Server-Timing";
+
+    private static final ThreadLocal<Recorder> CURRENT = new ThreadLocal<>();
+    private static final Stage NOOP = () -> {};
+
+    private ServerTiming() {}
+
+    public interface Stage extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    // Returns a shared no-op when timing is off, so untimed requests pay one ThreadLocal read per stage
+    public static Stage start(String name) {
+        Recorder recorder = CURRENT.get();
+        if (recorder == null) {
+            return NOOP;
+        }
+        long start = System.nanoTime();
+        return () -> recorder.add(name, System.nanoTime() - start);
+    }
+
+    public static void begin() {
+        CURRENT.set(new Recorder(System.nanoTime()));
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    // Lets stages recorded on another thread (e.g. a StructuredTasks subtask) count toward this request
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Recorder recorder = CURRENT.get();
+        if (recorder == null) {
+            return task;
+        }
+        return () -> {
+            CURRENT.set(recorder);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    public static String header() {
+        Recorder recorder = CURRENT.get();
+        return recorder == null ? null : recorder.format(System.nanoTime());
+    }
+
+    private static final class Recorder {
+        private final long requestStart;
+        private String[] names = new String[8];
+        private long[] nanos = new long[8];
+        private int count;
+
+        private Recorder(long requestStart) {
+            this.requestStart = requestStart;
+        }
+
+        // Repeated stages (e.g. two lookups) accumulate under one name; parallel subtasks may add concurrently
+        private synchronized void add(String name, long elapsed) {
+            for (int i = 0; i < count; i++) {
+                if (names[i].equals(name)) {
+                    nanos[i] += elapsed;
+                    return;
+                }
+            }
+            if (count == names.length) {
+                names = Arrays.copyOf(names, count * 2);
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            names[count] = name;
+            nanos[count] = elapsed;
+            count++;
+        }
+
+        private synchronized String format(long now) {
+            StringBuilder header = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                append(header, names[i], nanos[i]);
+            }
+            append(header, "total", now - requestStart);
+            return header.toString();
+        }
+
+        private void append(StringBuilder header, String name, long elapsed) {
+            if (!header.isEmpty()) {
+                header.append(", ");
+            }
+            header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.1f", elapsed / 1_000_000.0));
+        }
+    }
+}
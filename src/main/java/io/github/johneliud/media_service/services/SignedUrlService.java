@@ -0,0 +1,63 @@
+package io.github.johneliud.media_service.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+@Service
+@Slf4j
+public class SignedUrlService {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final String pathPrefix;
+
+    // Signed URLs are validated by the front proxy, so they are on by default whenever the proxy offloads downloads
+    public SignedUrlService(@Value("${media.signing.enabled:false}") boolean signingEnabled,
+                            @Value("${media.serve.mode:STREAM}") String serveMode,
+                            @Value("${media.signing.secret:}") String secret,
+                            @Value("${media.signing.ttl:PT1H}") Duration ttl,
+                            @Value("${media.signing.path-prefix:/media-files}") String pathPrefix) {
+        boolean enabled = signingEnabled || !"STREAM".equalsIgnoreCase(serveMode);
+        if (enabled && (secret == null || secret.length() < 32)) {
+            throw new IllegalStateException("media.signing.secret must be at least 32 characters");
+        }
+        this.key = enabled ? new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM) : null;
+        this.ttl = ttl;
+        this.pathPrefix = pathPrefix;
+    }
+
+    public record SignedUrl(String url, Instant expiresAt) {}
+
+    // The proxy recomputes base64url(HMAC-SHA256(secret, "{path}:{expires}")) to validate a URL on its own
+    public SignedUrl sign(String filename) {
+        if (key == null) {
+            log.warn("Signed URL requested but media.signing.enabled is false");
+            throw new IllegalArgumentException("Signed URLs are not enabled");
+        }
+        String path = pathPrefix + "/" + filename;
+        long expires = Instant.now().plus(ttl).getEpochSecond();
+        String url = path + "?expires=" + expires + "&signature=" + signature(path, expires);
+        return new SignedUrl(url, Instant.ofEpochSecond(expires));
+    }
+
+    private String signature(String path, long expires) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] digest = mac.doFinal((path + ":" + expires).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.exception.StorageOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@Slf4j
+public class StorageConcurrencyLimiter {
+    private static final double BACKOFF_RATIO = 0.9;
+
+    public enum Operation { READ, WRITE }
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double writeShare;
+
+    private volatile double limit;
+    private long lastDecreaseNanos;
+
+    private final Map<Operation, Counter> shed = new EnumMap<>(Operation.class);
+    private final Map<Operation, Timer> latency = new EnumMap<>(Operation.class);
+
+    public StorageConcurrencyLimiter(MeterRegistry meterRegistry,
+                                     @Value("${media.storage.limiter.initial-limit:32}") int initialLimit,
+                                     @Value("${media.storage.limiter.min-limit:4}") int minLimit,
+                                     @Value("${media.storage.limiter.max-limit:256}") int maxLimit,
+                                     @Value("${media.storage.limiter.latency-threshold:200ms}") Duration latencyThreshold,
+                                     @Value("${media.storage.limiter.write-share:0.7}") double writeShare) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.writeShare = writeShare;
+        this.lastDecreaseNanos = System.nanoTime();
+
+        for (Operation operation : Operation.values()) {
+            String tag = operation.name().toLowerCase();
+            shed.put(operation, Counter.builder("media.storage.shed")
+                    .tag("operation", tag)
+                    .description("Storage operations rejected by the adaptive concurrency limit")
+                    .register(meterRegistry));
+            latency.put(operation, Timer.builder("media.storage.latency")
+                    .tag("operation", tag)
+                    .description("Observed storage I/O latency")
+                    .register(meterRegistry));
+        }
+        Gauge.builder("media.storage.limit", this, StorageConcurrencyLimiter::getLimit)
+                .description("Current adaptive storage concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("media.storage.in_flight", inFlight, AtomicInteger::get)
+                .description("Storage operations currently in flight")
+                .register(meterRegistry);
+    }
+
+    public Permit acquire(Operation operation) {
+        return acquire(operation, true);
+    }
+
+    // Holds a slot without sampling, for work whose duration isn't storage latency (client reads, bulk copies)
+    public Permit acquireUnsampled(Operation operation) {
+        return acquire(operation, false);
+    }
+
+    private Permit acquire(Operation operation, boolean sampled) {
+        // Uploads only get a share of the limit so downloads keep headroom when storage slows down
+        int capacity = operation == Operation.READ
+                ? (int) limit
+                : Math.max(1, (int) (limit * writeShare));
+
+        while (true) {
+            int current = inFlight.get();
+            if (current >= capacity) {
+                shed.get(operation).increment();
+                log.warn("Storage {} shed: {} operations in flight, limit {}", operation, current, capacity);
+                throw new StorageOverloadedException("Storage is busy, please retry later", 1);
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(operation, current + 1, sampled);
+            }
+        }
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long latencyNanos, int inFlightAtStart) {
+        long now = System.nanoTime();
+        if (latencyNanos > latencyThresholdNanos) {
+            // Multiplicative decrease, at most once per threshold window so one slow burst doesn't collapse the limit
+            if (now - lastDecreaseNanos >= latencyThresholdNanos) {
+                double previous = limit;
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                lastDecreaseNanos = now;
+                if ((int) previous != (int) limit) {
+                    log.info("Storage latency {}ms above threshold, concurrency limit reduced to {}",
+                            TimeUnit.NANOSECONDS.toMillis(latencyNanos), (int) limit);
+                }
+            }
+        } else if (inFlightAtStart * 2 >= limit) {
+            // Additive increase, roughly +1 per limit's worth of healthy samples, only while the limit is being used
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    public final class Permit implements AutoCloseable {
+        private final Operation operation;
+        private final int inFlightAtStart;
+        private final boolean sampled;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Operation operation, int inFlightAtStart, boolean sampled) {
+            this.operation = operation;
+            this.inFlightAtStart = inFlightAtStart;
+            this.sampled = sampled;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                long elapsed = System.nanoTime() - startNanos;
+                inFlight.decrementAndGet();
+                if (sampled) {
+                    latency.get(operation).record(elapsed, TimeUnit.NANOSECONDS);
+                    onSample(elapsed, inFlightAtStart);
+                }
+            }
+        }
+    }
+}
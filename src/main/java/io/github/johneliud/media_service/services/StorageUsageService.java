@@ -0,0 +1,204 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.dto.StorageUsageResponse;
+import io.github.johneliud.media_service.models.Media;
+import io.github.johneliud.media_service.models.StorageUsage;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+@Slf4j
+public class StorageUsageService {
+    static final String SELLER = "seller";
+    static final String PRODUCT = "product";
+
+    private final MongoTemplate mongoTemplate;
+    private final long sellerQuotaBytes;
+    private final long cacheTtlNanos;
+    private final boolean reconcileEnabled;
+    private final Map<String, CachedUsage> cache = new ConcurrentHashMap<>();
+
+    public StorageUsageService(MongoTemplate mongoTemplate,
+                               @Value("${media.storage.quota.per-seller:0}") DataSize sellerQuota,
+                               @Value("${media.storage.usage.cache-ttl:PT1M}") Duration cacheTtl,
+                               @Value("${media.storage.usage.reconcile-enabled:false}") boolean reconcileEnabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.sellerQuotaBytes = sellerQuota.toBytes();
+        this.cacheTtlNanos = cacheTtl.toNanos();
+        this.reconcileEnabled = reconcileEnabled;
+    }
+
+    // Soft limit: concurrent uploads from one seller are already capped, so overshoot is bounded
+    public void checkQuota(String sellerId, long incomingBytes) {
+        if (sellerQuotaBytes <= 0) {
+            return;
+        }
+
+        long used = cached(key(SELLER, sellerId), sellerId, null).bytes.sum();
+        if (used + incomingBytes > sellerQuotaBytes) {
+            log.warn("Upload rejected for seller {}: {} bytes used + {} incoming exceeds quota of {}",
+                    sellerId, used, incomingBytes, sellerQuotaBytes);
+            throw new IllegalArgumentException("Storage quota exceeded");
+        }
+    }
+
+    public void recordUpload(Media media) {
+        apply(media, 1);
+    }
+
+    public void recordDelete(Media media) {
+        apply(media, -1);
+    }
+
+    public StorageUsageResponse getSellerUsage(String sellerId) {
+        CachedUsage usage = cached(key(SELLER, sellerId), sellerId, null);
+        return new StorageUsageResponse(sellerId, null, usage.bytes.sum(), usage.objects.sum(),
+                sellerQuotaBytes > 0 ? sellerQuotaBytes : null);
+    }
+
+    public StorageUsageResponse getProductUsage(String productId) {
+        CachedUsage usage = cached(key(PRODUCT, productId), null, productId);
+        return new StorageUsageResponse(usage.sellerId, productId, usage.bytes.sum(), usage.objects.sum(), null);
+    }
+
+    private void apply(Media media, int sign) {
+        long bytes = media.getFileSize() == null ? 0 : media.getFileSize();
+        // Counters are updated after the media change itself; a failure here only causes drift,
+        // which the reconciliation job corrects
+        try {
+            increment(key(SELLER, media.getSellerId()), SELLER, media.getSellerId(), null, sign * bytes, sign);
+            increment(key(PRODUCT, media.getProductId()), PRODUCT, media.getSellerId(), media.getProductId(),
+                    sign * bytes, sign);
+        } catch (RuntimeException e) {
+            log.error("Failed to update storage usage for media {}: {}", media.getId(), e.getMessage());
+        }
+    }
+
+    private void increment(String key, String scope, String sellerId, String productId, long bytes, long objects) {
+        Update update = new Update()
+                .inc("bytes", bytes)
+                .inc("objects", objects)
+                .set("scope", scope)
+                .set("sellerId", sellerId)
+                .set("productId", productId)
+                .set("updatedAt", Instant.now());
+        mongoTemplate.upsert(Query.query(Criteria.where("id").is(key)), update, StorageUsage.class);
+
+        CachedUsage usage = cache.get(key);
+        if (usage != null) {
+            usage.bytes.add(bytes);
+            usage.objects.add(objects);
+        }
+    }
+
+    private CachedUsage cached(String key, String sellerId, String productId) {
+        long now = System.nanoTime();
+        CachedUsage usage = cache.get(key);
+        if (usage != null && now - usage.loadedAt < cacheTtlNanos) {
+            return usage;
+        }
+
+        // Other replicas update the same documents, so entries are reloaded once they age out
+        StorageUsage stored = mongoTemplate.findById(key, StorageUsage.class);
+        CachedUsage loaded = stored == null
+                ? new CachedUsage(sellerId, 0, 0, now)
+                : new CachedUsage(stored.getSellerId(), stored.getBytes(), stored.getObjects(), now);
+        cache.put(key, loaded);
+        return loaded;
+    }
+
+    @Scheduled(fixedDelayString = "${media.storage.usage.reconcile-interval-ms:3600000}")
+    public void scheduledReconcile() {
+        if (reconcileEnabled) {
+            reconcile();
+        }
+    }
+
+    public int reconcile() {
+        int corrected = reconcileScope(SELLER, "sellerId") + reconcileScope(PRODUCT, "productId");
+        log.info("Storage usage reconciliation completed: {} counters corrected", corrected);
+        return corrected;
+    }
+
+    // Recomputes totals from the media collection and overwrites counters that drifted. Increments
+    // racing with this pass can be overwritten; the next pass corrects them again.
+    private int reconcileScope(String scope, String field) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(field).ne(null)),
+                Aggregation.group(field)
+                        .first("sellerId").as("sellerId")
+                        .sum("fileSize").as("bytes")
+                        .count().as("objects"));
+
+        Map<String, StorageUsage> recorded = new HashMap<>();
+        for (StorageUsage usage : mongoTemplate.find(Query.query(Criteria.where("scope").is(scope)), StorageUsage.class)) {
+            recorded.put(usage.getId(), usage);
+        }
+
+        int corrected = 0;
+        for (Document totals : mongoTemplate.aggregate(aggregation, Media.class, Document.class)) {
+            String ownerId = totals.getString("_id");
+            String key = key(scope, ownerId);
+            long bytes = ((Number) totals.get("bytes")).longValue();
+            long objects = ((Number) totals.get("objects")).longValue();
+
+            StorageUsage current = recorded.remove(key);
+            if (current == null || current.getBytes() != bytes || current.getObjects() != objects) {
+                log.warn("Storage usage drift for {}: recorded {} bytes/{} objects, actual {} bytes/{} objects",
+                        key, current == null ? 0 : current.getBytes(), current == null ? 0 : current.getObjects(),
+                        bytes, objects);
+                String sellerId = totals.getString("sellerId");
+                mongoTemplate.save(new StorageUsage(key, scope, sellerId, scope.equals(PRODUCT) ? ownerId : null,
+                        bytes, objects, Instant.now()));
+                cache.remove(key);
+                corrected++;
+            }
+        }
+
+        // Counters left over belong to sellers or products that no longer have any media
+        for (StorageUsage stale : recorded.values()) {
+            if (stale.getBytes() != 0 || stale.getObjects() != 0) {
+                log.warn("Storage usage drift for {}: recorded {} bytes/{} objects, no media remain",
+                        stale.getId(), stale.getBytes(), stale.getObjects());
+                corrected++;
+            }
+            mongoTemplate.remove(stale);
+            cache.remove(stale.getId());
+        }
+        return corrected;
+    }
+
+    private static String key(String scope, String ownerId) {
+        return scope + ":" + ownerId;
+    }
+
+    private static final class CachedUsage {
+        private final String sellerId;
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder objects = new LongAdder();
+        private final long loadedAt;
+
+        private CachedUsage(String sellerId, long bytes, long objects, long loadedAt) {
+            this.sellerId = sellerId;
+            this.bytes.add(bytes);
+            this.objects.add(objects);
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.johneliud.media_service.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+// Scope-bound fan-out for independent blocking I/O within a request, in the shape of StructuredTaskScope
+// (still a preview API): subtasks run on virtual threads, the first failure cancels the rest, and no subtask
+// outlives the try-with-resources block.
+public final class StructuredTasks implements AutoCloseable {
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("request-io-", 0).factory());
+    private final CompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+    private final List<Future<Object>> forked = new ArrayList<>();
+
+    private StructuredTasks() {}
+
+    public static StructuredTasks open() {
+        return new StructuredTasks();
+    }
+
+    public <T> Supplier<T> fork(Callable<T> task) {
+        Callable<Object> timed = ServerTiming.propagate(task::call);
+        Future<Object> future = completion.submit(timed);
+        forked.add(future);
+        @SuppressWarnings("unchecked")
+        Supplier<T> result = () -> (T) future.resultNow();
+        return result;
+    }
+
+    public StructuredTasks fork(Runnable task) {
+        fork(() -> {
+            task.run();
+            return null;
+        });
+        return this;
+    }
+
+    // Waits for every subtask; rethrows the first failure after cancelling the others
+    public void join() throws InterruptedException {
+        for (int i = 0; i < forked.size(); i++) {
+            Future<Object> done = completion.take();
+            try {
+                done.get();
+            } catch (ExecutionException e) {
+                forked.forEach(future -> future.cancel(true));
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException("Subtask failed", cause);
+            }
+        }
+    }
+
+    // Unchecked variant for request handlers, which cannot do anything useful with an interrupt
+    public void joinUninterruptibly() {
+        try {
+            join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            forked.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Interrupted while waiting for subtasks", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        // Blocks until every subtask has finished, including cancelled ones
+        executor.close();
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class UploadRateLimiter {
+    private final ConcurrentHashMap<String, SellerState> sellers = new ConcurrentHashMap<>();
+    private final AtomicInteger totalInFlight = new AtomicInteger();
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxConcurrentPerSeller;
+
+    private final Counter rateRejections;
+    private final Counter concurrencyRejections;
+
+    public UploadRateLimiter(MeterRegistry meterRegistry,
+                             @Value("${media.upload.rate-limit.per-second:2}") double uploadsPerSecond,
+                             @Value("${media.upload.rate-limit.burst:20}") int burst,
+                             @Value("${media.upload.max-concurrent-per-seller:4}") int maxConcurrentPerSeller) {
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / uploadsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(0, burst - 1);
+        this.maxConcurrentPerSeller = maxConcurrentPerSeller;
+
+        this.rateRejections = Counter.builder("media.upload.throttled")
+                .tag("reason", "rate")
+                .description("Uploads rejected because the seller exceeded the upload rate")
+                .register(meterRegistry);
+        this.concurrencyRejections = Counter.builder("media.upload.throttled")
+                .tag("reason", "concurrency")
+                .description("Uploads rejected because the seller had too many uploads in flight")
+                .register(meterRegistry);
+        Gauge.builder("media.upload.in_flight", totalInFlight, AtomicInteger::get)
+                .description("Upload requests currently being processed")
+                .register(meterRegistry);
+        Gauge.builder("media.upload.tracked_sellers", sellers, ConcurrentHashMap::size)
+                .description("Sellers with recent upload activity")
+                .register(meterRegistry);
+    }
+
+    public Permit acquireUpload(String sellerId) {
+        return acquire(sellerId, true);
+    }
+
+    public Permit acquireTransfer(String sellerId) {
+        return acquire(sellerId, false);
+    }
+
+    // The token and the slot are taken inside compute(), which excludes evictIdleSellers for this seller,
+    // so a state can't be evicted between being looked up and being used
+    private Permit acquire(String sellerId, boolean consumeToken) {
+        SellerState acquired = sellers.compute(sellerId, (id, existing) -> {
+            SellerState state = existing == null ? new SellerState() : existing;
+            if (consumeToken) {
+                long retryAfterNanos = state.tryConsumeToken(emissionIntervalNanos, burstToleranceNanos);
+                if (retryAfterNanos > 0) {
+                    rateRejections.increment();
+                    throw new RateLimitExceededException("Upload rate limit exceeded, please retry later",
+                            Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+                }
+            }
+            if (state.inFlight.incrementAndGet() > maxConcurrentPerSeller) {
+                state.inFlight.decrementAndGet();
+                concurrencyRejections.increment();
+                throw new RateLimitExceededException("Too many concurrent uploads, please retry later", 1);
+            }
+            return state;
+        });
+        totalInFlight.incrementAndGet();
+        return new Permit(acquired);
+    }
+
+    @Scheduled(fixedDelayString = "${media.upload.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleSellers() {
+        long now = System.nanoTime();
+        // Runs under the same per-key lock as acquire(), so only a state with no slot held can be removed
+        sellers.keySet().forEach(sellerId -> sellers.computeIfPresent(sellerId,
+                (id, current) -> current.isIdle(now) ? null : current));
+    }
+
+    int trackedSellers() {
+        return sellers.size();
+    }
+
+    public final class Permit implements AutoCloseable {
+        private final SellerState state;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(SellerState state) {
+            this.state = state;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                state.inFlight.decrementAndGet();
+                totalInFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private static final class SellerState {
+        // Generic cell rate algorithm: a token bucket whose whole state is the theoretical arrival time
+        private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private long tryConsumeToken(long emissionInterval, long burstTolerance) {
+            while (true) {
+                long now = System.nanoTime();
+                long current = theoreticalArrival.get();
+                long tat = Math.max(current, now);
+                long wait = tat - now - burstTolerance;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (theoreticalArrival.compareAndSet(current, tat + emissionInterval)) {
+                    return 0;
+                }
+            }
+        }
+
+        private boolean isIdle(long now) {
+            return inFlight.get() == 0 && theoreticalArrival.get() - now <= 0;
+        }
+    }
+}
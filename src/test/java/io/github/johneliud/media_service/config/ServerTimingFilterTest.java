@@ -0,0 +1,68 @@
+package io.github.johneliud.media_service.config;
+
+import io.github.johneliud.media_service.services.ServerTiming;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingFilterTest {
+
+    private ServerTimingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ServerTimingFilter();
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "sampleRate", 0.0);
+        ReflectionTestUtils.setField(filter, "debugHeader", "X-Debug-Timing");
+    }
+
+    @Test
+    void doFilter_AdminDebugHeader_AddsServerTiming() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/media/media123");
+        request.addHeader("X-Debug-Timing", "1");
+        request.addHeader("X-User-Role", "ADMIN");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                try (ServerTiming.Stage stage = ServerTiming.start("db")) {
+                    // timed work
+                }
+            }
+        }));
+
+        assertTrue(response.getHeader(ServerTiming.HEADER).startsWith("db;dur="));
+        assertFalse(ServerTiming.isActive());
+    }
+
+    @Test
+    void doFilter_DebugHeaderWithoutAdminRole_LeavesResponseUntouched() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/media/media123");
+        request.addHeader("X-Debug-Timing", "1");
+        request.addHeader("X-User-Role", "SELLER");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertNull(response.getHeader(ServerTiming.HEADER));
+    }
+
+    @Test
+    void doFilter_NotSampled_LeavesResponseUntouched() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/media/media123"), response, new MockFilterChain());
+
+        assertNull(response.getHeader(ServerTiming.HEADER));
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.johneliud.media_service.listener;
+
+import io.github.johneliud.media_service.event.ProductDeletedEvent;
+import io.github.johneliud.media_service.models.Media;
+import io.github.johneliud.media_service.repositories.MediaRepository;
+import io.github.johneliud.media_service.services.FileStorageService;
+import io.github.johneliud.media_service.services.MediaCacheInvalidator;
+import io.github.johneliud.media_service.services.MediaEventPublisher;
+import io.github.johneliud.media_service.services.StorageUsageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductEventListenerTest {
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private MediaCacheInvalidator mediaCacheInvalidator;
+
+    @Mock
+    private MediaEventPublisher mediaEventPublisher;
+
+    @Mock
+    private StorageUsageService storageUsageService;
+
+    @InjectMocks
+    private ProductEventListener productEventListener;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productEventListener, "maxParallelDeletes", 2);
+    }
+
+    private List<Media> media(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            Media media = new Media();
+            media.setId("media" + i);
+            media.setImagePath("media" + i + ".png");
+            return media;
+        }).toList();
+    }
+
+    @Test
+    void handleProductDeleted_DeletesAtMostMaxParallelAtOnce() throws Exception {
+        when(mediaRepository.findByProductId("product1")).thenReturn(media(8));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return null;
+        }).when(fileStorageService).deleteMedia(anyString());
+
+        productEventListener.handleProductDeleted(new ProductDeletedEvent("product1", "seller1"));
+
+        assertTrue(maxRunning.get() <= 2, "ran " + maxRunning.get() + " deletes at once");
+        verify(mediaRepository, times(8)).deleteById(anyString());
+        verify(mediaCacheInvalidator).invalidateProduct("product1");
+    }
+
+    @Test
+    void handleProductDeleted_OneFailure_ThrowsForRetryAfterDeletingTheRest() {
+        when(mediaRepository.findByProductId("product1")).thenReturn(media(3));
+        doAnswer(invocation -> {
+            if ("media1".equals(invocation.getArgument(0))) {
+                throw new RuntimeException("connection reset");
+            }
+            return null;
+        }).when(mediaRepository).deleteById(anyString());
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> productEventListener.handleProductDeleted(new ProductDeletedEvent("product1", "seller1")));
+
+        assertEquals("Failed to delete 1 media for product product1", exception.getMessage());
+        verify(mediaRepository).deleteById("media0");
+        verify(mediaRepository).deleteById("media2");
+        verify(mediaEventPublisher, times(2)).publishDeleted(any(Media.class));
+        verify(mediaCacheInvalidator).invalidateProduct("product1");
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.johneliud.media_service.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BkTreeTest {
+
+    @Test
+    void search_MatchesBruteForce() {
+        Random random = new Random(7);
+        long[] hashes = random.longs(2000).toArray();
+        // Plant a few near copies so the queries have something to find
+        for (int i = 0; i < 50; i++) {
+            hashes[1000 + i] = hashes[i] ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64));
+        }
+        BkTree<Integer> tree = new BkTree<>();
+        for (int i = 0; i < hashes.length; i++) {
+            tree.add(hashes[i], i);
+        }
+
+        for (int query = 0; query < 50; query++) {
+            long hash = hashes[query];
+            List<Integer> expected = IntStream.range(0, hashes.length)
+                    .filter(i -> PerceptualHash.distance(hashes[i], hash) <= 4)
+                    .boxed().sorted().toList();
+            List<Integer> actual = tree.search(hash, 4).stream()
+                    .map(BkTree.Match::value).sorted().toList();
+
+            assertEquals(expected, actual);
+            assertTrue(actual.contains(1000 + query));
+        }
+        assertEquals(2000, tree.size());
+    }
+
+    @Test
+    void add_IdenticalHashes_AreAllReturned() {
+        BkTree<String> tree = new BkTree<>();
+        tree.add(0xF0F0L, "first");
+        tree.add(0xF0F0L, "second");
+
+        assertEquals(List.of("first", "second"), tree.search(0xF0F0L, 0).stream().map(BkTree.Match::value).toList());
+    }
+}
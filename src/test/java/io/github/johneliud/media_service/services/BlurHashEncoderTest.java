@@ -0,0 +1,57 @@
+package io.github.johneliud.media_service.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlurHashEncoderTest {
+
+    @Test
+    void encode_SolidColour_EncodesSizeFlagAndAverage() {
+        BufferedImage image = filled(32, 32, Color.RED);
+
+        String hash = BlurHashEncoder.encode(image, 4, 3);
+
+        assertEquals(28, hash.length());
+        // (4 - 1) + (3 - 1) * 9 = 21 -> 'L'; DC of pure red is 0xFF0000 -> "TI:j"
+        assertEquals('L', hash.charAt(0));
+        assertEquals("TI:j", hash.substring(2, 6));
+    }
+
+    @Test
+    void encode_HorizontalGradient_VariesFirstComponent() {
+        BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(0, 0, 16, 32);
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(16, 0, 16, 32);
+        graphics.dispose();
+
+        String hash = BlurHashEncoder.encode(image, 4, 3);
+
+        assertEquals(28, hash.length());
+        assertNotEquals(BlurHashEncoder.encode(filled(32, 32, Color.GRAY), 4, 3).substring(6, 8), hash.substring(6, 8));
+    }
+
+    @Test
+    void encode_InvalidComponents_ThrowsException() {
+        BufferedImage image = filled(4, 4, Color.RED);
+
+        assertThrows(IllegalArgumentException.class, () -> BlurHashEncoder.encode(image, 0, 3));
+        assertThrows(IllegalArgumentException.class, () -> BlurHashEncoder.encode(image, 4, 10));
+    }
+
+    private BufferedImage filled(int width, int height, Color colour) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(colour);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        return image;
+    }
+}
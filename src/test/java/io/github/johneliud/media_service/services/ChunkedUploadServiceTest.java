@@ -0,0 +1,170 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.dto.MediaResponse;
+import io.github.johneliud.media_service.dto.UploadSessionRequest;
+import io.github.johneliud.media_service.dto.UploadSessionResponse;
+import io.github.johneliud.media_service.models.UploadSession;
+import io.github.johneliud.media_service.repositories.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkedUploadServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private MediaService mediaService;
+
+    @Mock
+    private StorageConcurrencyLimiter storageConcurrencyLimiter;
+
+    @Mock
+    private StorageUsageService storageUsageService;
+
+    @InjectMocks
+    private ChunkedUploadService chunkedUploadService;
+
+    private UploadSession session;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(chunkedUploadService, "chunkDir", tempDir.toString());
+        ReflectionTestUtils.setField(chunkedUploadService, "sessionTtl", Duration.ofHours(1));
+
+        session = new UploadSession("session123", "seller123", "product123", "photo.png", "image/png",
+                10, Instant.now().plus(Duration.ofHours(1)));
+    }
+
+    @Test
+    void createSession_ValidatesAndSaves() {
+        when(uploadSessionRepository.save(any(UploadSession.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        UploadSessionResponse response = chunkedUploadService.createSession(
+                new UploadSessionRequest("product123", "photo.png", "image/png", 10), "seller123");
+
+        verify(fileStorageService).validateUpload("photo.png", "image/png", 10);
+        assertNotNull(response.getSessionId());
+        assertEquals(0, response.getReceivedBytes());
+        assertFalse(response.isComplete());
+    }
+
+    @Test
+    void writeChunk_OutOfOrderChunks_TracksProgress() {
+        when(uploadSessionRepository.findById("session123")).thenReturn(Optional.of(session));
+
+        chunkedUploadService.writeChunk("session123", "seller123", 6, stream("6789"));
+        UploadSessionResponse response = chunkedUploadService.writeChunk("session123", "seller123", 0, stream("012"));
+
+        assertEquals(7, response.getReceivedBytes());
+        assertEquals(2, response.getReceivedRanges().size());
+        assertEquals(3, response.getReceivedRanges().get(0).getEnd());
+        assertEquals(6, response.getReceivedRanges().get(1).getStart());
+        assertFalse(response.isComplete());
+    }
+
+    @Test
+    void writeChunk_BeyondDeclaredSize_ThrowsException() {
+        when(uploadSessionRepository.findById("session123")).thenReturn(Optional.of(session));
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () ->
+                chunkedUploadService.writeChunk("session123", "seller123", 8, stream("890")));
+        assertEquals("Chunk exceeds the declared upload size", exception.getMessage());
+    }
+
+    @Test
+    void writeChunk_WrongSeller_ThrowsException() {
+        when(uploadSessionRepository.findById("session123")).thenReturn(Optional.of(session));
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () ->
+                chunkedUploadService.writeChunk("session123", "otherSeller", 0, stream("012")));
+        assertEquals("You do not have permission to access this upload session", exception.getMessage());
+    }
+
+    @Test
+    void writeChunk_ExpiredSession_ThrowsException() {
+        session.setExpiresAt(Instant.now().minusSeconds(1));
+        when(uploadSessionRepository.findById("session123")).thenReturn(Optional.of(session));
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () ->
+                chunkedUploadService.writeChunk("session123", "seller123", 0, stream("012")));
+        assertEquals("Upload session not found or expired", exception.getMessage());
+    }
+
+    @Test
+    void completeSession_OverlappingChunks_AssemblesInOrder() {
+        when(uploadSessionRepository.findById("session123")).thenReturn(Optional.of(session));
+        AtomicReference<String> assembled = new AtomicReference<>();
+        when(mediaService.uploadMedia(any(Path.class), eq("photo.png"), eq("image/png"), eq("product123"), eq("seller123")))
+                .thenAnswer(inv -> {
+                    assembled.set(Files.readString(inv.getArgument(0)));
+                    MediaResponse uploaded = new MediaResponse();
+                    uploaded.setId("media123");
+                    return uploaded;
+                });
+
+        chunkedUploadService.writeChunk("session123", "seller123", 4, stream("456789"));
+        chunkedUploadService.writeChunk("session123", "seller123", 0, stream("012345"));
+
+        MediaResponse response = chunkedUploadService.completeSession("session123", "seller123");
+
+        assertEquals("media123", response.getId());
+        assertEquals("0123456789", assembled.get());
+        verify(uploadSessionRepository).deleteById("session123");
+        assertFalse(Files.exists(tempDir.resolve("session123")));
+    }
+
+    @Test
+    void completeSession_MissingChunks_ThrowsException() {
+        when(uploadSessionRepository.findById("session123")).thenReturn(Optional.of(session));
+        chunkedUploadService.writeChunk("session123", "seller123", 0, stream("0123"));
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () ->
+                chunkedUploadService.completeSession("session123", "seller123"));
+        assertEquals("Upload incomplete: 4 of 10 bytes received", exception.getMessage());
+        verify(mediaService, never()).uploadMedia(any(Path.class), any(), any(), any(), any());
+    }
+
+    @Test
+    void cleanupExpiredSessions_DeletesChunksAndSession() throws Exception {
+        Files.createDirectories(tempDir.resolve("session123"));
+        Files.writeString(tempDir.resolve("session123").resolve("0.part"), "012");
+        when(uploadSessionRepository.findByExpiresAtBefore(any(Instant.class))).thenReturn(List.of(session));
+
+        chunkedUploadService.cleanupExpiredSessions();
+
+        verify(uploadSessionRepository).deleteById("session123");
+        assertFalse(Files.exists(tempDir.resolve("session123")));
+    }
+
+    private ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes());
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.models.DeadLetter;
+import io.github.johneliud.media_service.repositories.DeadLetterRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterServiceTest {
+
+    @Mock
+    private DeadLetterRepository deadLetterRepository;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @InjectMocks
+    private DeadLetterService deadLetterService;
+
+    @Test
+    void handleDeadLetter_RecordsOriginAndFailure() {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("order-placed-dlt", 0, 7L, "order123", "{bad");
+        record.headers().add(KafkaHeaders.DLT_ORIGINAL_TOPIC, "order-placed".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(KafkaHeaders.DLT_ORIGINAL_PARTITION, ByteBuffer.allocate(4).putInt(2).array());
+        record.headers().add(KafkaHeaders.DLT_ORIGINAL_OFFSET, ByteBuffer.allocate(8).putLong(42L).array());
+        record.headers().add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, "Unexpected character".getBytes(StandardCharsets.UTF_8));
+
+        deadLetterService.handleDeadLetter(record);
+
+        ArgumentCaptor<DeadLetter> captor = ArgumentCaptor.forClass(DeadLetter.class);
+        verify(deadLetterRepository).save(captor.capture());
+        DeadLetter saved = captor.getValue();
+        assertEquals("order-placed", saved.getOriginalTopic());
+        assertEquals(2, saved.getOriginalPartition());
+        assertEquals(42L, saved.getOriginalOffset());
+        assertEquals("order123", saved.getMessageKey());
+        assertEquals("{bad", saved.getPayload());
+        assertEquals("Unexpected character", saved.getExceptionMessage());
+        assertNotNull(saved.getFailedAt());
+    }
+
+    @Test
+    void replay_SendsToOriginalTopicAndMarksReplayed() {
+        DeadLetter deadLetter = new DeadLetter();
+        deadLetter.setId("dl1");
+        deadLetter.setOriginalTopic("product-deleted");
+        deadLetter.setMessageKey("product123");
+        deadLetter.setPayload("{\"productId\":\"product123\"}");
+        when(deadLetterRepository.findById("dl1")).thenReturn(Optional.of(deadLetter));
+        when(kafkaTemplate.send("product-deleted", "product123", "{\"productId\":\"product123\"}"))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(deadLetterRepository.save(any(DeadLetter.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        DeadLetter replayed = deadLetterService.replay("dl1");
+
+        assertNotNull(replayed.getReplayedAt());
+        assertEquals(1, replayed.getReplayCount());
+    }
+
+    @Test
+    void replay_SendFailure_LeavesDeadLetterPending() {
+        DeadLetter deadLetter = new DeadLetter();
+        deadLetter.setId("dl1");
+        deadLetter.setOriginalTopic("product-deleted");
+        when(deadLetterRepository.findById("dl1")).thenReturn(Optional.of(deadLetter));
+        when(kafkaTemplate.send("product-deleted", null, null))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker unavailable")));
+
+        assertThrows(RuntimeException.class, () -> deadLetterService.replay("dl1"));
+        verify(deadLetterRepository, never()).save(any());
+        assertNull(deadLetter.getReplayedAt());
+    }
+
+    @Test
+    void replay_NotFound_ThrowsException() {
+        when(deadLetterRepository.findById("missing")).thenReturn(Optional.empty());
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> deadLetterService.replay("missing"));
+        assertEquals("Dead letter not found", exception.getMessage());
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.dto.DuplicateGroup;
+import io.github.johneliud.media_service.dto.MediaResponse;
+import io.github.johneliud.media_service.models.Media;
+import io.github.johneliud.media_service.repositories.MediaRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DuplicateDetectionServiceTest {
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    private Media media(String id, String productId, long hash) {
+        Media media = new Media();
+        media.setId(id);
+        media.setProductId(productId);
+        media.setSellerId("seller123");
+        media.setPerceptualHash(hash);
+        return media;
+    }
+
+    @Test
+    void findSellerDuplicates_GroupsNearCopies() {
+        DuplicateDetectionService service = new DuplicateDetectionService(mediaRepository,
+                DuplicateDetectionService.UploadMode.OFF, 6, 10000);
+        List<Media> hashed = List.of(
+                media("a", "p1", 0x0000_0000_0000_00FFL),
+                media("b", "p2", 0x0000_0000_0000_00FEL),
+                media("c", "p3", 0x0000_0000_0000_00FCL),
+                media("d", "p4", 0xFFFF_FFFF_0000_0000L));
+        when(mediaRepository.findHashesBySellerId(eq("seller123"), any(Pageable.class))).thenReturn(hashed);
+        when(mediaRepository.findAllById(List.of("a", "b", "c"))).thenReturn(hashed.subList(0, 3));
+
+        List<DuplicateGroup> groups = service.findSellerDuplicates("seller123", 1);
+
+        assertEquals(1, groups.size());
+        // a-b and b-c are within distance 1, so all three form one cluster even though a and c are 2 apart
+        assertEquals(List.of("a", "b", "c"), groups.get(0).getMedia().stream().map(MediaResponse::getId).toList());
+        assertEquals(2, groups.get(0).getMaxDistance());
+    }
+
+    @Test
+    void findSellerDuplicates_ScansOnlyCappedHashes() {
+        DuplicateDetectionService service = new DuplicateDetectionService(mediaRepository,
+                DuplicateDetectionService.UploadMode.OFF, 6, 500);
+        when(mediaRepository.findHashesBySellerId(eq("seller123"), any(Pageable.class))).thenReturn(List.of(
+                media("a", "p1", 0x0000_0000_0000_00FFL),
+                media("d", "p4", 0xFFFF_FFFF_0000_0000L)));
+
+        assertTrue(service.findSellerDuplicates("seller123", 1).isEmpty());
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(mediaRepository).findHashesBySellerId(eq("seller123"), page.capture());
+        assertEquals(500, page.getValue().getPageSize());
+        // No groups, so no full documents are loaded
+        verify(mediaRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void findSellerDuplicates_DistanceOutOfRange_ThrowsException() {
+        DuplicateDetectionService service = new DuplicateDetectionService(mediaRepository,
+                DuplicateDetectionService.UploadMode.OFF, 6, 10000);
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            service.findSellerDuplicates("seller123", 40);
+        });
+        assertEquals("maxDistance must be between 0 and 16", exception.getMessage());
+    }
+
+    @Test
+    void findProductDuplicate_ReturnsClosestMatch() {
+        DuplicateDetectionService service = new DuplicateDetectionService(mediaRepository,
+                DuplicateDetectionService.UploadMode.REJECT, 6, 10000);
+        when(mediaRepository.findBySellerIdAndProductId("seller123", "p1")).thenReturn(List.of(
+                media("far", "p1", 0x0FL),
+                media("near", "p1", 0x01L)));
+
+        Optional<Media> duplicate = service.findProductDuplicate("seller123", "p1", 0x00L);
+
+        assertEquals("near", duplicate.orElseThrow().getId());
+    }
+
+    @Test
+    void findProductDuplicate_ModeOff_SkipsLookup() {
+        DuplicateDetectionService service = new DuplicateDetectionService(mediaRepository,
+                DuplicateDetectionService.UploadMode.OFF, 6, 10000);
+
+        assertTrue(service.findProductDuplicate("seller123", "p1", 0x00L).isEmpty());
+        verifyNoInteractions(mediaRepository);
+    }
+}
@@ -1,11 +1,28 @@
 package io.github.johneliud.media_service.services;
 
+import io.github.johneliud.media_service.dto.StoredMedia;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -14,23 +31,79 @@ class FileStorageServiceTest {
     @TempDir
     Path tempDir;
 
+    private FileStorageService newService() {
+        FileStorageService service = new FileStorageService(new StorageConcurrencyLimiter(
+                new SimpleMeterRegistry(), 32, 4, 256, Duration.ofMillis(200), 0.7),
+                new GroupCommitSyncer(true, Duration.ZERO));
+        ReflectionTestUtils.setField(service, "maxImageDimension", 16384);
+        ReflectionTestUtils.setField(service, "maxImagePixels", 40_000_000L);
+        ReflectionTestUtils.setField(service, "maxImageFrames", 100);
+        ReflectionTestUtils.setField(service, "variantDir", tempDir.resolve("variants").toString());
+        ReflectionTestUtils.setField(service, "tempFileMaxAge", Duration.ofHours(1));
+        ReflectionTestUtils.setField(service, "coldDir", tempDir.resolve("cold").toString());
+        return service;
+    }
+
+    static byte[] pngHeader(int width, int height) {
+        return ByteBuffer.allocate(33)
+                .put(new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A})
+                .putInt(13).put("IHDR".getBytes(StandardCharsets.US_ASCII))
+                .putInt(width).putInt(height)
+                .put(new byte[]{8, 2, 0, 0, 0})
+                .putInt(0)
+                .array();
+    }
+
     @Test
     void storeMedia_ValidImage_Success() {
-        FileStorageService service = new FileStorageService();
+        FileStorageService service = newService();
         ReflectionTestUtils.setField(service, "uploadDir", tempDir.toString());
 
-        byte[] pngBytes = new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A};
+        byte[] pngBytes = pngHeader(640, 480);
         MockMultipartFile file = new MockMultipartFile("image", "test.png", "image/png", pngBytes);
 
-        String filename = service.storeMedia(file);
+        StoredMedia stored = service.storeMedia(file);
+
+        assertNotNull(stored.getFilename());
+        assertTrue(stored.getFilename().endsWith(".png"));
+        assertEquals(pngBytes.length, stored.getSize());
+        assertEquals(HexFormat.of().formatHex(FileStorageService.newChecksumDigest().digest(pngBytes)), stored.getChecksum());
+        assertEquals(640, stored.getWidth());
+        assertEquals(480, stored.getHeight());
+    }
+
+    @Test
+    void storeMedia_ValidImage_LeavesNoStagedFile() throws Exception {
+        FileStorageService service = newService();
+        ReflectionTestUtils.setField(service, "uploadDir", tempDir.toString());
+
+        StoredMedia stored = service.storeMedia(new MockMultipartFile("image", "test.png", "image/png", pngHeader(64, 64)));
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(stored.getFilename()), files.map(path -> path.getFileName().toString()).toList());
+        }
+    }
+
+    @Test
+    void cleanupStaleTempFiles_RemovesOnlyOldStagedFiles() throws Exception {
+        FileStorageService service = newService();
+        ReflectionTestUtils.setField(service, "uploadDir", tempDir.toString());
+        Path stale = Files.writeString(tempDir.resolve(".stale.png.tmp"), "partial");
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        Path inFlight = Files.writeString(tempDir.resolve(".fresh.png.tmp"), "partial");
+        Path media = Files.writeString(tempDir.resolve("old.png"), "image");
+        Files.setLastModifiedTime(media, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+
+        service.cleanupStaleTempFiles();
 
-        assertNotNull(filename);
-        assertTrue(filename.endsWith(".png"));
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(inFlight));
+        assertTrue(Files.exists(media));
     }
 
     @Test
     void storeMedia_FileTooLarge_ThrowsException() {
-        FileStorageService service = new FileStorageService();
+        FileStorageService service = newService();
         byte[] largeFile = new byte[3 * 1024 * 1024]; // 3MB
         MockMultipartFile file = new MockMultipartFile("image", "test.png", "image/png", largeFile);
 
@@ -42,7 +115,7 @@ class FileStorageServiceTest {
 
     @Test
     void storeMedia_InvalidMimeType_ThrowsException() {
-        FileStorageService service = new FileStorageService();
+        FileStorageService service = newService();
         byte[] content = new byte[]{1, 2, 3, 4};
         MockMultipartFile file = new MockMultipartFile("image", "test.txt", "text/plain", content);
 
@@ -54,7 +127,7 @@ class FileStorageServiceTest {
 
     @Test
     void storeMedia_InvalidExtension_ThrowsException() {
-        FileStorageService service = new FileStorageService();
+        FileStorageService service = newService();
         byte[] content = new byte[]{1, 2, 3, 4};
         MockMultipartFile file = new MockMultipartFile("image", "test.txt", "image/png", content);
 
@@ -66,7 +139,7 @@ class FileStorageServiceTest {
 
     @Test
     void storeMedia_InvalidImageContent_ThrowsException() {
-        FileStorageService service = new FileStorageService();
+        FileStorageService service = newService();
         byte[] invalidImage = new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
         MockMultipartFile file = new MockMultipartFile("image", "test.png", "image/png", invalidImage);
 
@@ -76,9 +149,32 @@ class FileStorageServiceTest {
         assertEquals("Invalid image file", exception.getMessage());
     }
 
+    @Test
+    void storeMedia_DecompressionBomb_ThrowsException() {
+        FileStorageService service = newService();
+        MockMultipartFile file = new MockMultipartFile("image", "test.png", "image/png", pngHeader(30000, 30000));
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            service.storeMedia(file);
+        });
+        assertEquals("Image dimensions exceed the allowed limit", exception.getMessage());
+    }
+
+    @Test
+    void storeMedia_MissingImageHeader_ThrowsException() {
+        FileStorageService service = newService();
+        byte[] signatureOnly = new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A};
+        MockMultipartFile file = new MockMultipartFile("image", "test.png", "image/png", signatureOnly);
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            service.storeMedia(file);
+        });
+        assertEquals("Invalid image file", exception.getMessage());
+    }
+
     @Test
     void storeMedia_EmptyFile_ThrowsException() {
-        FileStorageService service = new FileStorageService();
+        FileStorageService service = newService();
         MockMultipartFile file = new MockMultipartFile("image", "test.png", "image/png", new byte[0]);
 
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -86,4 +182,143 @@ class FileStorageServiceTest {
         });
         assertEquals("File is empty", exception.getMessage());
     }
+
+    @Test
+    void storeMedia_DecodableImage_GeneratesPlaceholder() throws Exception {
+        FileStorageService service = newService();
+        ReflectionTestUtils.setField(service, "uploadDir", tempDir.toString());
+        ReflectionTestUtils.setField(service, "placeholderEnabled", true);
+        ReflectionTestUtils.setField(service, "placeholderComponentsX", 4);
+        ReflectionTestUtils.setField(service, "placeholderComponentsY", 3);
+
+        BufferedImage image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, 100, 100);
+        graphics.setColor(Color.BLUE);
+        graphics.fillRect(100, 0, 100, 100);
+        graphics.dispose();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+
+        StoredMedia stored = service.storeMedia(new MockMultipartFile("image", "test.png", "image/png", png.toByteArray()));
+
+        assertNotNull(stored.getPlaceholder());
+        assertEquals(28, stored.getPlaceholder().length());
+    }
+
+    @Test
+    void storeMedia_DecodableImage_RecordsPerceptualHash() throws Exception {
+        FileStorageService service = newService();
+        ReflectionTestUtils.setField(service, "uploadDir", tempDir.toString());
+        ReflectionTestUtils.setField(service, "perceptualHashEnabled", true);
+
+        BufferedImage image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.WHITE, 200, 0, Color.BLACK));
+        graphics.fillRect(0, 0, 200, 100);
+        graphics.dispose();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+
+        StoredMedia stored = service.storeMedia(new MockMultipartFile("image", "test.png", "image/png", png.toByteArray()));
+
+        // Brightness falls from left to right, so every cell is brighter than its right neighbour
+        assertEquals(-1L, stored.getPerceptualHash());
+        assertNull(stored.getPlaceholder());
+    }
+
+    @Test
+    void storeMedia_UndecodableImage_StoresWithoutPlaceholder() {
+        FileStorageService service = newService();
+        ReflectionTestUtils.setField(service, "uploadDir", tempDir.toString());
+        ReflectionTestUtils.setField(service, "placeholderEnabled", true);
+
+        StoredMedia stored = service.storeMedia(new MockMultipartFile("image", "test.png", "image/png", pngHeader(640, 480)));
+
+        assertNotNull(stored.getFilename());
+        assertNull(stored.getPlaceholder());
+    }
+
+    @Test
+    void loadMedia_ExistingFile_ReturnsContent() {
+        FileStorageService service = newService();
+        ReflectionTestUtils.setField(service, "uploadDir", tempDir.toString());
+
+        byte[] pngBytes = pngHeader(640, 480);
+        StoredMedia stored = service.storeMedia(new MockMultipartFile("image", "test.png", "image/png", pngBytes));
+
+        assertArrayEquals(pngBytes, service.loadMedia(stored.getFilename()).orElseThrow());
+    }
+
+    @Test
+    void deleteMedia_RemovesStoredVariants() throws Exception {
+        FileStorageService service = newService();
+        ReflectionTestUtils.setField(service, "uploadDir", tempDir.toString());
+
+        StoredMedia stored = service.storeMedia(new MockMultipartFile("image", "test.png", "image/png", pngHeader(640, 480)));
+        service.storeVariant(stored.getFilename(), "jpg", new byte[]{1, 2, 3});
+        assertTrue(service.loadVariant(stored.getFilename(), "jpg").isPresent());
+
+        service.deleteMedia(stored.getFilename());
+
+        assertTrue(service.loadMedia(stored.getFilename()).isEmpty());
+        assertTrue(service.loadVariant(stored.getFilename(), "jpg").isEmpty());
+    }
+
+    @Test
+    void loadMedia_MissingFile_ReturnsEmpty() {
+        FileStorageService service = newService();
+        ReflectionTestUtils.setField(service, "uploadDir", tempDir.toString());
+
+        assertTrue(service.loadMedia("missing.png").isEmpty());
+    }
+
+    @Test
+    void demote_MovesFileToColdTier_ReadsFallThrough() throws Exception {
+        FileStorageService service = newService();
+        ReflectionTestUtils.setField(service, "uploadDir", tempDir.resolve("hot").toString());
+        ReflectionTestUtils.setField(service, "tieringEnabled", true);
+
+        byte[] pngBytes = pngHeader(640, 480);
+        StoredMedia stored = service.storeMedia(new MockMultipartFile("image", "test.png", "image/png", pngBytes));
+        service.storeVariant(stored.getFilename(), "jpg", new byte[]{1, 2, 3});
+
+        assertTrue(service.demote(stored.getFilename()));
+
+        assertFalse(Files.exists(tempDir.resolve("hot").resolve(stored.getFilename())));
+        assertTrue(service.isInColdTier(stored.getFilename()));
+        assertEquals(tempDir.resolve("cold").resolve(stored.getFilename()), service.getMediaPath(stored.getFilename()));
+        assertArrayEquals(pngBytes, service.loadMedia(stored.getFilename()).orElseThrow());
+        assertTrue(service.loadVariant(stored.getFilename(), "jpg").isEmpty());
+    }
+
+    @Test
+    void promote_MovesFileBackToHotTier() throws Exception {
+        FileStorageService service = newService();
+        ReflectionTestUtils.setField(service, "uploadDir", tempDir.resolve("hot").toString());
+        ReflectionTestUtils.setField(service, "tieringEnabled", true);
+        StoredMedia stored = service.storeMedia(new MockMultipartFile("image", "test.png", "image/png", pngHeader(640, 480)));
+        service.demote(stored.getFilename());
+
+        assertTrue(service.promote(stored.getFilename()));
+
+        assertFalse(service.isInColdTier(stored.getFilename()));
+        assertTrue(Files.exists(tempDir.resolve("hot").resolve(stored.getFilename())));
+        assertFalse(Files.exists(tempDir.resolve("cold").resolve(stored.getFilename())));
+    }
+
+    @Test
+    void deleteMedia_RemovesColdCopy() throws Exception {
+        FileStorageService service = newService();
+        ReflectionTestUtils.setField(service, "uploadDir", tempDir.resolve("hot").toString());
+        ReflectionTestUtils.setField(service, "tieringEnabled", true);
+        StoredMedia stored = service.storeMedia(new MockMultipartFile("image", "test.png", "image/png", pngHeader(640, 480)));
+        service.demote(stored.getFilename());
+
+        service.deleteMedia(stored.getFilename());
+
+        assertTrue(service.loadMedia(stored.getFilename()).isEmpty());
+        assertFalse(Files.exists(tempDir.resolve("cold").resolve(stored.getFilename())));
+    }
 }
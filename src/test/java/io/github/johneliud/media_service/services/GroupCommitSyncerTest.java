@@ -0,0 +1,84 @@
+package io.github.johneliud.media_service.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GroupCommitSyncerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void syncDirectory_ConcurrentCallers_ShareCommits() throws Exception {
+        GroupCommitSyncer syncer = new GroupCommitSyncer(true, Duration.ofMillis(20));
+        int callers = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    syncer.syncDirectory(tempDir);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+
+        assertTrue(syncer.directorySyncCount() >= 1);
+        assertTrue(syncer.directorySyncCount() < callers,
+                "expected batched syncs but got " + syncer.directorySyncCount());
+    }
+
+    @Test
+    void syncDirectory_SequentialCallers_EachGetASync() throws Exception {
+        GroupCommitSyncer syncer = new GroupCommitSyncer(true, Duration.ZERO);
+
+        syncer.syncDirectory(tempDir);
+        syncer.syncDirectory(tempDir);
+
+        assertEquals(2, syncer.directorySyncCount());
+    }
+
+    @Test
+    void syncFile_Disabled_SkipsSyncs() throws Exception {
+        GroupCommitSyncer syncer = new GroupCommitSyncer(false, Duration.ZERO);
+        Path file = Files.writeString(tempDir.resolve("media.png"), "content");
+
+        syncer.syncFile(file);
+        syncer.syncDirectory(tempDir);
+
+        assertEquals(0, syncer.directorySyncCount());
+    }
+
+    @Test
+    void syncDirectory_UncheckedFailure_ReleasesLaterCallers() {
+        GroupCommitSyncer syncer = new GroupCommitSyncer(true, Duration.ZERO);
+        Path broken = mock(Path.class);
+        when(broken.toAbsolutePath()).thenReturn(broken);
+        when(broken.getFileSystem()).thenThrow(new IllegalStateException("filesystem closed"));
+
+        assertThrows(IllegalStateException.class, () -> syncer.syncDirectory(broken));
+        // Without the state reset the second caller would wait forever for the first sync to finish
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(IllegalStateException.class, () -> syncer.syncDirectory(broken)));
+    }
+}
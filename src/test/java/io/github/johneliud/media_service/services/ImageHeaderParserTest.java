@@ -0,0 +1,119 @@
+package io.github.johneliud.media_service.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageHeaderParserTest {
+
+    @Test
+    void parse_Png_ReadsIhdr() {
+        ImageHeaderParser.ImageInfo info = ImageHeaderParser.parse(FileStorageServiceTest.pngHeader(800, 600));
+
+        assertEquals(ImageHeaderParser.Format.PNG, info.format());
+        assertEquals(800, info.width());
+        assertEquals(600, info.height());
+        assertEquals(1, info.frames());
+    }
+
+    @Test
+    void parse_AnimatedPng_ReadsFrameCount() {
+        ByteBuffer actl = ByteBuffer.allocate(20).putInt(8).put(ascii("acTL")).putInt(250).putInt(0).putInt(0);
+        byte[] png = concat(FileStorageServiceTest.pngHeader(100, 100), actl.array());
+
+        assertEquals(250, ImageHeaderParser.parse(png).frames());
+    }
+
+    @Test
+    void parse_Jpeg_SkipsSegmentsUntilStartOfFrame() {
+        byte[] jpeg = {
+            (byte) 0xFF, (byte) 0xD8,
+            (byte) 0xFF, (byte) 0xE0, 0x00, 0x04, 0x00, 0x00,
+            (byte) 0xFF, (byte) 0xC2, 0x00, 0x11, 0x08, 0x01, (byte) 0xE0, 0x02, (byte) 0x80, 0x03
+        };
+
+        ImageHeaderParser.ImageInfo info = ImageHeaderParser.parse(jpeg);
+
+        assertEquals(ImageHeaderParser.Format.JPEG, info.format());
+        assertEquals(640, info.width());
+        assertEquals(480, info.height());
+    }
+
+    @Test
+    void parse_JpegWithoutFrameHeader_ReturnsNull() {
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xDA, 0x00, 0x02};
+
+        assertNull(ImageHeaderParser.parse(jpeg));
+    }
+
+    @Test
+    void parse_LossyWebp_ReadsFrameHeader() {
+        ByteBuffer vp8 = le(10).put(new byte[]{0, 0, 0, (byte) 0x9D, 0x01, 0x2A}).putShort((short) 1024).putShort((short) 768);
+
+        ImageHeaderParser.ImageInfo info = ImageHeaderParser.parse(webp("VP8 ", vp8.array()));
+
+        assertEquals(1024, info.width());
+        assertEquals(768, info.height());
+    }
+
+    @Test
+    void parse_LosslessWebp_ReadsPackedDimensions() {
+        int bits = (300 - 1) | (200 - 1) << 14;
+        ByteBuffer vp8l = le(10).put((byte) 0x2F).putInt(bits).put(new byte[5]);
+
+        ImageHeaderParser.ImageInfo info = ImageHeaderParser.parse(webp("VP8L", vp8l.array()));
+
+        assertEquals(300, info.width());
+        assertEquals(200, info.height());
+    }
+
+    @Test
+    void parse_AnimatedWebp_CountsFrames() {
+        ByteBuffer vp8x = le(10).put((byte) 0x02).put(new byte[3]).put(uint24(29999)).put(uint24(29999));
+        ByteBuffer anmf = le(16).put(ascii("ANMF")).putInt(0).put(ascii("ANMF")).putInt(0);
+        byte[] file = concat(webp("VP8X", vp8x.array()), anmf.array());
+
+        ImageHeaderParser.ImageInfo info = ImageHeaderParser.parse(file);
+
+        assertEquals(30000, info.width());
+        assertEquals(30000, info.height());
+        assertEquals(2, info.frames());
+    }
+
+    @Test
+    void parse_TruncatedHeader_ReturnsNull() {
+        byte[] truncated = new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13};
+
+        assertNull(ImageHeaderParser.parse(truncated));
+    }
+
+    private static byte[] webp(String chunkType, byte[] payload) {
+        ByteBuffer header = le(20).put(ascii("RIFF")).putInt(12 + payload.length).put(ascii("WEBP"))
+                .put(ascii(chunkType)).putInt(payload.length);
+        return concat(header.array(), payload);
+    }
+
+    private static ByteBuffer le(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static byte[] uint24(int value) {
+        return new byte[]{(byte) value, (byte) (value >> 8), (byte) (value >> 16)};
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(first);
+        out.writeBytes(second);
+        return out.toByteArray();
+    }
+}
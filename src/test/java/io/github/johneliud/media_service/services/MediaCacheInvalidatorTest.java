@@ -0,0 +1,155 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.dto.CacheInvalidationMessage;
+import io.github.johneliud.media_service.dto.MediaResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MediaCacheInvalidatorTest {
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MediaCache mediaCache;
+
+    private MediaCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        mediaCache = new MediaCache(true, Duration.ofMinutes(1), 100);
+        invalidator = new MediaCacheInvalidator(mediaCache, kafkaTemplate, objectMapper, "media-cache-invalidation", 2);
+    }
+
+    @Test
+    void invalidateMedia_EvictsLocallyAndBatchesPublish() throws Exception {
+        mediaCache.putMedia("media1", response("media1"), mediaCache.mediaVersion("media1"));
+        when(kafkaTemplate.send(eq("media-cache-invalidation"), anyString(), anyString()))
+                .thenReturn(new CompletableFuture<>());
+
+        invalidator.invalidateMedia("media1", "product1");
+        invalidator.invalidateMedia("media2", "product1");
+
+        assertTrue(mediaCache.getMedia("media1").isEmpty());
+
+        invalidator.flush();
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(kafkaTemplate, times(2)).send(eq("media-cache-invalidation"), eq(invalidator.getInstanceId()), payload.capture());
+        CacheInvalidationMessage first = objectMapper.readValue(payload.getAllValues().get(0), CacheInvalidationMessage.class);
+        CacheInvalidationMessage second = objectMapper.readValue(payload.getAllValues().get(1), CacheInvalidationMessage.class);
+        assertEquals(2, first.getMediaIds().size());
+        assertEquals(List.of("product1"), second.getProductIds());
+
+        invalidator.flush();
+        verifyNoMoreInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void applyRemote_EvictsEntriesFromPeers() {
+        mediaCache.putMedia("media1", response("media1"), mediaCache.mediaVersion("media1"));
+        mediaCache.putProductMedia("product1", List.of(response("media1")), mediaCache.productVersion("product1"));
+
+        invalidator.applyRemote(new CacheInvalidationMessage("other-instance", List.of("media1"), List.of("product1")));
+
+        assertTrue(mediaCache.getMedia("media1").isEmpty());
+        assertTrue(mediaCache.getProductMedia("product1").isEmpty());
+    }
+
+    @Test
+    void applyRemote_IgnoresOwnMessages() {
+        mediaCache.putMedia("media1", response("media1"), mediaCache.mediaVersion("media1"));
+
+        invalidator.applyRemote(new CacheInvalidationMessage(invalidator.getInstanceId(), List.of("media1"), List.of()));
+
+        assertTrue(mediaCache.getMedia("media1").isPresent());
+    }
+
+    @Test
+    void putMedia_AfterConcurrentEviction_IsDiscarded() {
+        long version = mediaCache.mediaVersion("media1");
+        invalidator.invalidateMedia("media1", null);
+
+        mediaCache.putMedia("media1", response("media1"), version);
+
+        assertTrue(mediaCache.getMedia("media1").isEmpty());
+    }
+
+    @Test
+    void putMedia_AfterEvictionOfOtherKeys_IsCached() {
+        long version = mediaCache.mediaVersion("media1");
+        invalidator.invalidateMedia("media2", "product2");
+        invalidator.invalidateProduct("product3");
+
+        mediaCache.putMedia("media1", response("media1"), version);
+
+        assertTrue(mediaCache.getMedia("media1").isPresent());
+    }
+
+    @Test
+    void putMedia_LoadSpanningVersionPrune_IsDiscarded() {
+        long version = mediaCache.mediaVersion("media1");
+        invalidator.invalidateMedia("media1", null);
+        mediaCache.purgeExpired();
+
+        mediaCache.putMedia("media1", response("media1"), version);
+
+        assertTrue(mediaCache.getMedia("media1").isEmpty());
+    }
+
+    @Test
+    void putMedia_FullCache_EvictsOneEntryWithoutInvalidatingLoads() {
+        long version = mediaCache.mediaVersion("late");
+        for (int i = 0; i < 500; i++) {
+            mediaCache.putMedia("media" + i, response("media" + i), mediaCache.mediaVersion("media" + i));
+            assertTrue(mediaCache.getMedia("media" + i).isPresent());
+        }
+        assertEquals(100, mediaCache.size());
+
+        // A load that started before the cache filled up is still admitted: nothing purged or raised the floor
+        mediaCache.putMedia("late", response("late"), version);
+
+        assertTrue(mediaCache.getMedia("late").isPresent());
+        assertEquals(100, mediaCache.size());
+    }
+
+    @Test
+    void getMedia_ReturnsCopies() {
+        mediaCache.putMedia("media1", response("media1"), mediaCache.mediaVersion("media1"));
+
+        mediaCache.getMedia("media1").orElseThrow().setImagePath("changed.png");
+
+        assertNull(mediaCache.getMedia("media1").orElseThrow().getImagePath());
+    }
+
+    @Test
+    void getMedia_ExpiredEntry_IsMissed() {
+        MediaCache shortLived = new MediaCache(true, Duration.ZERO, 100);
+        shortLived.putMedia("media1", response("media1"), shortLived.mediaVersion("media1"));
+
+        assertTrue(shortLived.getMedia("media1").isEmpty());
+    }
+
+    private MediaResponse response(String id) {
+        MediaResponse response = new MediaResponse();
+        response.setId(id);
+        return response;
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.event.MediaDeletedEvent;
+import io.github.johneliud.media_service.event.MediaUploadedEvent;
+import io.github.johneliud.media_service.models.Media;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MediaEventPublisherTest {
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MediaEventPublisher publisher;
+
+    private Media media;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new MediaEventPublisher(kafkaTemplate, objectMapper);
+        media = new Media();
+        media.setId("media123");
+        media.setImagePath("stored.png");
+        media.setProductId("product123");
+        media.setSellerId("seller123");
+        media.setWidth(640);
+        media.setHeight(480);
+    }
+
+    @Test
+    void publishUploaded_SendsEventKeyedByProduct() {
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(new CompletableFuture<>());
+
+        publisher.publishUploaded(media);
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(kafkaTemplate).send(eq("media-uploaded"), eq("product123"), payload.capture());
+        MediaUploadedEvent event = objectMapper.readValue(payload.getValue(), MediaUploadedEvent.class);
+        assertEquals("media123", event.getMediaId());
+        assertEquals(640, event.getWidth());
+        assertNotNull(event.getTimestamp());
+    }
+
+    @Test
+    void publishDeleted_SendsEventKeyedByProduct() {
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(new CompletableFuture<>());
+
+        publisher.publishDeleted(media);
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(kafkaTemplate).send(eq("media-deleted"), eq("product123"), payload.capture());
+        assertEquals("seller123", objectMapper.readValue(payload.getValue(), MediaDeletedEvent.class).getSellerId());
+    }
+
+    @Test
+    void publishUploaded_SendFailure_DoesNotPropagate() {
+        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker unavailable")));
+
+        assertDoesNotThrow(() -> publisher.publishUploaded(media));
+    }
+}
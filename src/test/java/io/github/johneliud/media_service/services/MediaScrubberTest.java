@@ -0,0 +1,204 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.models.IntegrityStatus;
+import io.github.johneliud.media_service.models.Media;
+import io.github.johneliud.media_service.models.ScrubCheckpoint;
+import io.github.johneliud.media_service.models.StorageTier;
+import io.github.johneliud.media_service.repositories.MediaRepository;
+import io.github.johneliud.media_service.repositories.ScrubCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MediaScrubberTest {
+
+    private static final String HELLO_SHA256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    @Mock
+    private ScrubCheckpointRepository scrubCheckpointRepository;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private StorageConcurrencyLimiter storageConcurrencyLimiter;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MediaScrubber scrubber;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        scrubber = new MediaScrubber(mediaRepository, scrubCheckpointRepository, fileStorageService,
+                storageConcurrencyLimiter, mongoTemplate, meterRegistry);
+        ReflectionTestUtils.setField(scrubber, "batchSize", 10);
+        ReflectionTestUtils.setField(scrubber, "timeBudget", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(scrubber, "bytesPerSecond", DataSize.ofMegabytes(100));
+        ReflectionTestUtils.setField(scrubber, "quarantineDir", tempDir.resolve("quarantine").toString());
+
+        Files.writeString(tempDir.resolve("good.png"), "hello");
+        Files.writeString(tempDir.resolve("corrupt.png"), "hellO");
+        lenient().when(fileStorageService.getMediaPath(any())).thenAnswer(inv -> tempDir.resolve((String) inv.getArgument(0)));
+    }
+
+    @Test
+    void scrub_ReportsMismatchesAndResetsAfterFullPass() {
+        Media good = media("1", "good.png", 5L, HELLO_SHA256);
+        Media corrupt = media("2", "corrupt.png", 5L, HELLO_SHA256);
+        Media missing = media("3", "missing.png", 5L, HELLO_SHA256);
+        when(scrubCheckpointRepository.findById("media")).thenReturn(Optional.empty());
+        when(mediaRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(good, corrupt, missing)));
+        when(mediaRepository.findById("2")).thenReturn(Optional.of(corrupt));
+        when(mediaRepository.findById("3")).thenReturn(Optional.of(missing));
+
+        int processed = scrubber.scrub();
+
+        assertEquals(3, processed);
+        assertEquals(IntegrityStatus.OK, recordedStatus("1"));
+        assertEquals(IntegrityStatus.CHECKSUM_MISMATCH, recordedStatus("2"));
+        assertEquals(IntegrityStatus.MISSING, recordedStatus("3"));
+        assertEquals(1.0, meterRegistry.get("media.scrub.mismatches").tag("status", "missing").counter().count());
+
+        ArgumentCaptor<ScrubCheckpoint> checkpoint = ArgumentCaptor.forClass(ScrubCheckpoint.class);
+        verify(scrubCheckpointRepository).save(checkpoint.capture());
+        assertNull(checkpoint.getValue().getLastMediaId());
+    }
+
+    @Test
+    void scrub_ResumesFromCheckpoint() {
+        when(scrubCheckpointRepository.findById("media"))
+                .thenReturn(Optional.of(new ScrubCheckpoint("media", "1", null, 1, 0)));
+        when(mediaRepository.findByIdGreaterThan(eq("1"), any(Pageable.class)))
+                .thenReturn(List.of(media("2", "good.png", 5L, HELLO_SHA256)));
+
+        scrubber.scrub();
+
+        verify(mediaRepository, never()).findAll(any(Pageable.class));
+        assertEquals(IntegrityStatus.OK, recordedStatus("2"));
+    }
+
+    @Test
+    void scrub_LegacyMediaWithoutChecksum_BackfillsReference() {
+        when(scrubCheckpointRepository.findById("media")).thenReturn(Optional.empty());
+        when(mediaRepository.findAll(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(media("1", "good.png", null, null))));
+
+        scrubber.scrub();
+
+        Document set = recordedSet("1");
+        assertEquals(5L, set.get("fileSize"));
+        assertEquals(HELLO_SHA256, set.get("checksum"));
+    }
+
+    @Test
+    void scrub_QuarantineEnabled_MovesCorruptFile() {
+        ReflectionTestUtils.setField(scrubber, "quarantine", true);
+        when(scrubCheckpointRepository.findById("media")).thenReturn(Optional.empty());
+        Media corrupt = media("2", "corrupt.png", 5L, HELLO_SHA256);
+        when(mediaRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(corrupt)));
+        when(mediaRepository.findById("2")).thenReturn(Optional.of(corrupt));
+
+        scrubber.scrub();
+
+        assertFalse(Files.exists(tempDir.resolve("corrupt.png")));
+        assertTrue(Files.exists(tempDir.resolve("quarantine").resolve("corrupt.png")));
+    }
+
+    @Test
+    void scrub_MediaDeletedWhileChecked_RecordsNothing() {
+        when(scrubCheckpointRepository.findById("media")).thenReturn(Optional.empty());
+        when(mediaRepository.findAll(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(media("3", "missing.png", 5L, HELLO_SHA256))));
+        when(mediaRepository.findById("3")).thenReturn(Optional.empty());
+
+        scrubber.scrub();
+
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Media.class));
+        assertTrue(meterRegistry.find("media.scrub.mismatches").counters().isEmpty());
+    }
+
+    @Test
+    void scrub_MediaDemotedWhileChecked_RecordsNothing() {
+        Media scanned = media("3", "missing.png", 5L, HELLO_SHA256);
+        scanned.setStorageTier(StorageTier.HOT);
+        Media demoted = media("3", "missing.png", 5L, HELLO_SHA256);
+        demoted.setStorageTier(StorageTier.COLD);
+        when(scrubCheckpointRepository.findById("media")).thenReturn(Optional.empty());
+        when(mediaRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(scanned)));
+        when(mediaRepository.findById("3")).thenReturn(Optional.of(demoted));
+
+        scrubber.scrub();
+
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Media.class));
+    }
+
+    @Test
+    void scheduledScrub_StorageBusy_Skips() {
+        ReflectionTestUtils.setField(scrubber, "enabled", true);
+        when(storageConcurrencyLimiter.getInFlight()).thenReturn(10);
+        when(storageConcurrencyLimiter.getLimit()).thenReturn(16.0);
+
+        scrubber.scheduledScrub();
+
+        verifyNoInteractions(scrubCheckpointRepository, mediaRepository);
+    }
+
+    private Media media(String id, String imagePath, Long size, String checksum) {
+        Media media = new Media();
+        media.setId(id);
+        media.setImagePath(imagePath);
+        media.setFileSize(size);
+        media.setChecksum(checksum);
+        return media;
+    }
+
+    private IntegrityStatus recordedStatus(String mediaId) {
+        return (IntegrityStatus) recordedSet(mediaId).get("integrityStatus");
+    }
+
+    private Document recordedSet(String mediaId) {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce()).updateFirst(query.capture(), update.capture(), eq(Media.class));
+        for (int i = 0; i < query.getAllValues().size(); i++) {
+            if (mediaId.equals(query.getAllValues().get(i).getQueryObject().get("id"))) {
+                return (Document) update.getAllValues().get(i).getUpdateObject().get("$set");
+            }
+        }
+        throw new AssertionError("No update recorded for media " + mediaId);
+    }
+}
@@ -1,18 +1,22 @@
 package io.github.johneliud.media_service.services;
 
 import io.github.johneliud.media_service.dto.MediaResponse;
+import io.github.johneliud.media_service.dto.StoredMedia;
 import io.github.johneliud.media_service.models.Media;
 import io.github.johneliud.media_service.repositories.ActiveOrderProductRepository;
 import io.github.johneliud.media_service.repositories.MediaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,6 +34,21 @@ class MediaServiceTest {
     @Mock
     private ActiveOrderProductRepository activeOrderProductRepository;
 
+    @Mock
+    private MediaCache mediaCache;
+
+    @Mock
+    private MediaCacheInvalidator mediaCacheInvalidator;
+
+    @Mock
+    private MediaEventPublisher mediaEventPublisher;
+
+    @Mock
+    private StorageUsageService storageUsageService;
+
+    @Mock
+    private DuplicateDetectionService duplicateDetectionService;
+
     @InjectMocks
     private MediaService mediaService;
 
@@ -47,9 +66,17 @@ class MediaServiceTest {
         testMedia.setSellerId("seller123");
     }
 
+    private StoredMedia storedMedia() {
+        StoredMedia stored = new StoredMedia();
+        stored.setFilename("test-image.jpg");
+        stored.setSize(1024);
+        stored.setChecksum("abc123");
+        return stored;
+    }
+
     @Test
     void uploadMedia_Success() {
-        when(fileStorageService.storeMedia(mockFile)).thenReturn("test-image.jpg");
+        when(fileStorageService.storeMedia(mockFile)).thenReturn(storedMedia());
         when(mediaRepository.save(any(Media.class))).thenReturn(testMedia);
 
         MediaResponse response = mediaService.uploadMedia(mockFile, "product123", "seller123");
@@ -61,6 +88,78 @@ class MediaServiceTest {
         assertEquals("seller123", response.getSellerId());
         verify(fileStorageService).storeMedia(mockFile);
         verify(mediaRepository).save(any(Media.class));
+        verify(mediaEventPublisher).publishUploaded(testMedia);
+        verify(storageUsageService).recordUpload(testMedia);
+    }
+
+    @Test
+    void uploadMedia_QuotaExceeded_LeavesNoFileBehind() throws Exception {
+        CountDownLatch stored = new CountDownLatch(1);
+        when(mockFile.getSize()).thenReturn(1024L);
+        when(fileStorageService.storeMedia(mockFile)).thenAnswer(invocation -> {
+            stored.countDown();
+            return storedMedia();
+        });
+        // The quota lookup runs alongside the write; rejecting it only after the file landed is the worst case
+        doAnswer(invocation -> {
+            stored.await(5, TimeUnit.SECONDS);
+            throw new IllegalArgumentException("Storage quota exceeded");
+        }).when(storageUsageService).checkQuota("seller123", 1024L);
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            mediaService.uploadMedia(mockFile, "product123", "seller123");
+        });
+        assertEquals("Storage quota exceeded", exception.getMessage());
+        verify(fileStorageService).deleteMedia(storedMedia().getFilename());
+        verify(mediaRepository, never()).save(any());
+    }
+
+    @Test
+    void uploadMedia_RecordsSizeAndChecksum() {
+        when(fileStorageService.storeMedia(mockFile)).thenReturn(storedMedia());
+        when(mediaRepository.save(any(Media.class))).thenReturn(testMedia);
+
+        mediaService.uploadMedia(mockFile, "product123", "seller123");
+
+        ArgumentCaptor<Media> captor = ArgumentCaptor.forClass(Media.class);
+        verify(mediaRepository).save(captor.capture());
+        assertEquals(1024L, captor.getValue().getFileSize());
+        assertEquals("abc123", captor.getValue().getChecksum());
+    }
+
+    @Test
+    void uploadMedia_DuplicateInRejectMode_DeletesStoredFile() {
+        StoredMedia stored = storedMedia();
+        stored.setPerceptualHash(42L);
+        when(fileStorageService.storeMedia(mockFile)).thenReturn(stored);
+        when(duplicateDetectionService.findProductDuplicate("seller123", "product123", 42L))
+                .thenReturn(Optional.of(testMedia));
+        when(duplicateDetectionService.getUploadMode()).thenReturn(DuplicateDetectionService.UploadMode.REJECT);
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            mediaService.uploadMedia(mockFile, "product123", "seller123");
+        });
+        assertEquals("This image already exists for the product", exception.getMessage());
+        verify(fileStorageService).deleteMedia("test-image.jpg");
+        verify(mediaRepository, never()).save(any());
+    }
+
+    @Test
+    void uploadMedia_DuplicateInLinkMode_ReturnsExistingMedia() {
+        StoredMedia stored = storedMedia();
+        stored.setFilename("new-upload.jpg");
+        stored.setPerceptualHash(42L);
+        when(fileStorageService.storeMedia(mockFile)).thenReturn(stored);
+        when(duplicateDetectionService.findProductDuplicate("seller123", "product123", 42L))
+                .thenReturn(Optional.of(testMedia));
+        when(duplicateDetectionService.getUploadMode()).thenReturn(DuplicateDetectionService.UploadMode.LINK);
+
+        MediaResponse response = mediaService.uploadMedia(mockFile, "product123", "seller123");
+
+        assertEquals("media123", response.getId());
+        verify(fileStorageService).deleteMedia("new-upload.jpg");
+        verify(mediaRepository, never()).save(any());
+        verify(storageUsageService, never()).recordUpload(any());
     }
 
     @Test
@@ -80,6 +179,9 @@ class MediaServiceTest {
 
         verify(fileStorageService).deleteMedia("test-image.jpg");
         verify(mediaRepository).deleteById("media123");
+        verify(mediaCacheInvalidator).invalidateMedia("media123", "product123");
+        verify(mediaEventPublisher).publishDeleted(testMedia);
+        verify(storageUsageService).recordDelete(testMedia);
     }
 
     @Test
@@ -93,6 +195,8 @@ class MediaServiceTest {
         assertEquals("Cannot delete media for a product that has active orders", exception.getMessage());
         verify(fileStorageService, never()).deleteMedia(any());
         verify(mediaRepository, never()).deleteById(any());
+        verify(mediaEventPublisher, never()).publishDeleted(any());
+        verify(storageUsageService, never()).recordDelete(any());
     }
 
     @Test
@@ -136,4 +240,16 @@ class MediaServiceTest {
         assertEquals("media123", response.getId());
         verify(mediaRepository).findById("media123");
     }
+
+    @Test
+    void getMediaById_Cached_SkipsRepository() {
+        MediaResponse cached = new MediaResponse();
+        cached.setId("media123");
+        when(mediaCache.getMedia("media123")).thenReturn(Optional.of(cached));
+
+        MediaResponse response = mediaService.getMediaById("media123");
+
+        assertSame(cached, response);
+        verify(mediaRepository, never()).findById(any());
+    }
 }
@@ -0,0 +1,181 @@
+package io.github.johneliud.media_service.services;
+
+import com.mongodb.client.result.UpdateResult;
+import io.github.johneliud.media_service.exception.StorageOverloadedException;
+import io.github.johneliud.media_service.models.Media;
+import io.github.johneliud.media_service.models.StorageTier;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MediaTieringServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private StorageConcurrencyLimiter storageConcurrencyLimiter;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private MediaTieringService mediaTieringService;
+
+    @BeforeEach
+    void setUp() {
+        mediaTieringService = new MediaTieringService(mongoTemplate, fileStorageService, storageConcurrencyLimiter,
+                true, Duration.ofDays(30), 2, true);
+    }
+
+    private UpdateResult updated(long matched) {
+        return UpdateResult.acknowledged(matched, matched, null);
+    }
+
+    private Media media(String id) {
+        Media media = new Media();
+        media.setId(id);
+        media.setImagePath(id + ".png");
+        return media;
+    }
+
+    @Test
+    void flushAccesses_RepeatedReads_WrittenOnce() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Media.class)).thenReturn(bulkOperations);
+
+        mediaTieringService.recordAccess("media1");
+        mediaTieringService.recordAccess("media1");
+        mediaTieringService.recordAccess("media2");
+        mediaTieringService.flushAccesses();
+        mediaTieringService.flushAccesses();
+
+        verify(bulkOperations, times(2)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(1)).execute();
+    }
+
+    @Test
+    void flushAccesses_ColdMedia_IsPromoted() throws Exception {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Media.class)).thenReturn(bulkOperations);
+        when(mongoTemplate.find(any(Query.class), eq(Media.class))).thenReturn(List.of(media("media1")));
+        when(fileStorageService.promote("media1.png")).thenReturn(true);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class))).thenReturn(updated(1));
+
+        mediaTieringService.recordAccess("media1");
+        mediaTieringService.flushAccesses();
+
+        verify(fileStorageService).promote("media1.png");
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Media.class));
+        assertEquals(StorageTier.HOT, update.getValue().getUpdateObject().get("$set", Document.class).get("storageTier"));
+    }
+
+    @Test
+    void migrate_IdleMedia_MovedToColdTier() throws Exception {
+        when(mongoTemplate.find(any(Query.class), eq(Media.class)))
+                .thenReturn(List.of(media("media1"), media("media2")))
+                .thenReturn(List.of(media("media3")));
+        when(fileStorageService.demote("media1.png")).thenReturn(true);
+        when(fileStorageService.demote("media2.png")).thenReturn(false);
+        when(fileStorageService.demote("media3.png")).thenReturn(true);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class))).thenReturn(updated(1));
+
+        assertEquals(2, mediaTieringService.migrate());
+
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(Update.class), eq(Media.class));
+    }
+
+    @Test
+    void migrate_MediaDeletedDuringMove_RemovesMovedFile() throws Exception {
+        when(mongoTemplate.find(any(Query.class), eq(Media.class))).thenReturn(List.of(media("media1")));
+        when(fileStorageService.demote("media1.png")).thenReturn(true);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class))).thenReturn(updated(0));
+        when(mongoTemplate.exists(any(Query.class), eq(Media.class))).thenReturn(false);
+
+        assertEquals(0, mediaTieringService.migrate());
+
+        verify(fileStorageService).deleteMedia("media1.png");
+    }
+
+    @Test
+    void flushAccesses_MediaDeletedDuringPromotion_RemovesMovedFile() throws Exception {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Media.class)).thenReturn(bulkOperations);
+        when(mongoTemplate.find(any(Query.class), eq(Media.class))).thenReturn(List.of(media("media1")));
+        when(fileStorageService.promote("media1.png")).thenReturn(true);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class))).thenReturn(updated(0));
+        when(mongoTemplate.exists(any(Query.class), eq(Media.class))).thenReturn(false);
+
+        mediaTieringService.recordAccess("media1");
+        mediaTieringService.flushAccesses();
+
+        verify(fileStorageService).deleteMedia("media1.png");
+    }
+
+    @Test
+    void migrate_TierChangedByAnotherReplica_KeepsFile() throws Exception {
+        when(mongoTemplate.find(any(Query.class), eq(Media.class))).thenReturn(List.of(media("media1")));
+        when(fileStorageService.demote("media1.png")).thenReturn(true);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class))).thenReturn(updated(0));
+        when(mongoTemplate.exists(any(Query.class), eq(Media.class))).thenReturn(true);
+
+        assertEquals(0, mediaTieringService.migrate());
+
+        verify(fileStorageService, never()).deleteMedia(anyString());
+    }
+
+    @Test
+    void migrate_NeverAccessedMedia_BackfilledInsteadOfDemoted() {
+        when(mongoTemplate.find(any(Query.class), eq(Media.class))).thenReturn(List.of());
+
+        assertEquals(0, mediaTieringService.migrate());
+
+        ArgumentCaptor<Query> backfill = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateMulti(backfill.capture(), any(Update.class), eq(Media.class));
+        assertTrue(backfill.getValue().getQueryObject().containsKey("lastAccessedAt"));
+        ArgumentCaptor<Query> candidates = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(candidates.capture(), eq(Media.class));
+        assertFalse(candidates.getValue().getQueryObject().containsKey("$or"));
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    void migrate_StorageBusy_StopsRound() throws Exception {
+        when(mongoTemplate.find(any(Query.class), eq(Media.class)))
+                .thenReturn(List.of(media("media1"), media("media2")));
+        when(fileStorageService.demote("media1.png")).thenThrow(new StorageOverloadedException("busy", 1));
+
+        assertEquals(0, mediaTieringService.migrate());
+
+        verify(fileStorageService, never()).demote("media2.png");
+    }
+
+    @Test
+    void recordAccess_Disabled_IsIgnored() {
+        MediaTieringService disabled = new MediaTieringService(mongoTemplate, fileStorageService,
+                storageConcurrencyLimiter, false, Duration.ofDays(30), 2, true);
+
+        disabled.recordAccess("media1");
+        disabled.flushAccesses();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.johneliud.media_service.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MediaVariantServiceTest {
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    private MediaVariantService mediaVariantService;
+
+    @BeforeEach
+    void setUp() {
+        mediaVariantService = new MediaVariantService(fileStorageService, true,
+                List.of("image/webp", "image/jpeg"), 0.8f, 2);
+    }
+
+    @Test
+    void acceptableAlternates_WildcardOnly_OffersNothing() {
+        assertEquals(List.of(), mediaVariantService.acceptableAlternates("image/png", "image/*,*/*;q=0.8"));
+        assertEquals(List.of("image/jpeg"), mediaVariantService.acceptableAlternates("image/png", "image/jpeg,*/*;q=0.8"));
+        assertEquals(List.of(), mediaVariantService.acceptableAlternates("image/png", "image/png"));
+        assertEquals(List.of(), mediaVariantService.acceptableAlternates("image/png", "image/jpeg;q=0,*/*"));
+        assertEquals(List.of(), mediaVariantService.acceptableAlternates("image/jpeg", "*/*"));
+    }
+
+    @Test
+    void negotiate_CachedVariant_ReturnsIt() {
+        when(fileStorageService.hasVariant("photo.png", "jpg")).thenReturn(true);
+
+        Optional<MediaVariantService.Variant> variant =
+                mediaVariantService.negotiate("photo.png", "image/png", "image/avif,image/jpeg,*/*");
+
+        assertTrue(variant.isPresent());
+        assertEquals("image/jpeg", variant.get().contentType());
+        assertEquals("jpg", variant.get().extension());
+    }
+
+    @Test
+    void negotiate_NoAcceptHeader_ServesOriginal() {
+        assertTrue(mediaVariantService.negotiate("photo.png", "image/png", null).isEmpty());
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    void generateVariant_SmallerEncoding_IsStored() throws Exception {
+        when(fileStorageService.loadMedia("photo.png")).thenReturn(Optional.of(png(noise(128, 128, false))));
+
+        assertTrue(mediaVariantService.generateVariant("photo.png", "image/jpeg"));
+
+        verify(fileStorageService).storeVariant(eq("photo.png"), eq("jpg"), any(byte[].class));
+    }
+
+    @Test
+    void generateVariant_TransparentImage_IsNotConvertedToJpeg() throws Exception {
+        when(fileStorageService.loadMedia("logo.png")).thenReturn(Optional.of(png(noise(64, 64, true))));
+
+        assertFalse(mediaVariantService.generateVariant("logo.png", "image/jpeg"));
+
+        verify(fileStorageService, never()).storeVariant(anyString(), anyString(), any(byte[].class));
+        // Negatively cached: later requests no longer look for this variant
+        assertTrue(mediaVariantService.negotiate("logo.png", "image/png", "image/jpeg").isEmpty());
+        verify(fileStorageService, never()).hasVariant("logo.png", "jpg");
+    }
+
+    @Test
+    void generateVariant_LargerEncoding_IsDiscarded() throws Exception {
+        BufferedImage flat = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        when(fileStorageService.loadMedia("flat.png")).thenReturn(Optional.of(png(flat)));
+
+        assertFalse(mediaVariantService.generateVariant("flat.png", "image/jpeg"));
+
+        verify(fileStorageService, never()).storeVariant(anyString(), anyString(), any(byte[].class));
+    }
+
+    private BufferedImage noise(int width, int height, boolean transparent) {
+        BufferedImage image = new BufferedImage(width, height,
+                transparent ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int alpha = transparent ? random.nextInt(256) : 0xFF;
+                image.setRGB(x, y, alpha << 24 | random.nextInt(0x1000000));
+            }
+        }
+        return image;
+    }
+
+    private byte[] png(BufferedImage image) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
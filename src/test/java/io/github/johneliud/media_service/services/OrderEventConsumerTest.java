@@ -12,6 +12,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -78,4 +81,21 @@ class OrderEventConsumerTest {
 
         verify(activeOrderProductRepository, never()).deleteById(any());
     }
+
+    @Test
+    void handleOrderPlacedMessage_malformedPayload_propagatesForDeadLettering() {
+        OrderEventConsumer consumer = new OrderEventConsumer(activeOrderProductRepository, new ObjectMapper());
+
+        assertThrows(JacksonException.class, () -> consumer.handleOrderPlacedMessage("{not json"));
+        verifyNoInteractions(activeOrderProductRepository);
+    }
+
+    @Test
+    void handleOrderStatusChangedMessage_repositoryFailure_propagatesForRetry() {
+        OrderEventConsumer consumer = new OrderEventConsumer(activeOrderProductRepository, new ObjectMapper());
+        doThrow(new RuntimeException("connection reset")).when(activeOrderProductRepository).deleteById("order123");
+
+        assertThrows(RuntimeException.class, () -> consumer.handleOrderStatusChangedMessage(
+                "{\"orderId\":\"order123\",\"newStatus\":\"CANCELLED\"}"));
+    }
 }
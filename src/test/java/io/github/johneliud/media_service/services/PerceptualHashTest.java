@@ -0,0 +1,66 @@
+package io.github.johneliud.media_service.services;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerceptualHashTest {
+
+    private BufferedImage scene(long seed, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        Random random = new Random(seed);
+        for (int i = 0; i < 12; i++) {
+            graphics.setColor(new Color(random.nextInt(0x1000000)));
+            graphics.fillRect(random.nextInt(width), random.nextInt(height), width / 3, height / 3);
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    private BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+        return resized;
+    }
+
+    private BufferedImage reencodeAsJpeg(BufferedImage image) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    void dHash_ResizedAndReencoded_StaysClose() throws Exception {
+        BufferedImage original = scene(1, 400, 300);
+        long hash = PerceptualHash.dHash(original);
+
+        assertTrue(PerceptualHash.distance(hash, PerceptualHash.dHash(resize(original, 160, 120))) <= 6);
+        assertTrue(PerceptualHash.distance(hash, PerceptualHash.dHash(reencodeAsJpeg(original))) <= 6);
+    }
+
+    @Test
+    void dHash_DifferentImages_AreFarApart() {
+        long first = PerceptualHash.dHash(scene(1, 400, 300));
+        long second = PerceptualHash.dHash(scene(2, 400, 300));
+
+        assertTrue(PerceptualHash.distance(first, second) > 10);
+    }
+
+    @Test
+    void dHash_TooSmall_ReturnsNull() {
+        assertNull(PerceptualHash.dHash(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB)));
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.johneliud.media_service.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopularityTrackerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void topMedia_ReturnsMostRequestedFirst() {
+        PopularityTracker tracker = new PopularityTracker(4, 1024, 2, tempDir.resolve("popular.txt").toString());
+
+        record(tracker, "hot", 50);
+        record(tracker, "warm", 20);
+        for (int i = 0; i < 100; i++) {
+            tracker.record("cold-" + i);
+        }
+
+        assertEquals(List.of("hot", "warm"), tracker.topMedia());
+    }
+
+    @Test
+    void decay_HalvesCounts() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        for (int i = 0; i < 10; i++) {
+            sketch.add("media123");
+        }
+
+        sketch.decay();
+
+        assertEquals(5, sketch.estimate("media123"));
+        assertEquals(0, sketch.estimate("unknown"));
+    }
+
+    @Test
+    void sketch_KeysWithSameHashCode_CountedSeparately() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        for (int i = 0; i < 10; i++) {
+            sketch.add("Aa");
+        }
+
+        assertEquals(10, sketch.estimate("Aa"));
+        assertEquals(0, sketch.estimate("BB"));
+    }
+
+    @Test
+    void snapshot_RoundTripsTopMedia() throws Exception {
+        Path snapshot = tempDir.resolve("popular.txt");
+        PopularityTracker tracker = new PopularityTracker(4, 1024, 10, snapshot.toString());
+        record(tracker, "media1", 3);
+        record(tracker, "media2", 5);
+
+        tracker.writeSnapshot();
+
+        assertEquals(List.of("media2", "media1"), Files.readAllLines(snapshot));
+        assertEquals(List.of("media2", "media1"),
+                new PopularityTracker(4, 1024, 10, snapshot.toString()).readSnapshot());
+    }
+
+    @Test
+    void readSnapshot_MissingFile_ReturnsEmpty() {
+        PopularityTracker tracker = new PopularityTracker(4, 1024, 10, tempDir.resolve("missing.txt").toString());
+
+        assertTrue(tracker.readSnapshot().isEmpty());
+    }
+
+    private void record(PopularityTracker tracker, String mediaId, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(mediaId);
+        }
+    }
+}
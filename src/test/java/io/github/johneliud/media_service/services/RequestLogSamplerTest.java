@@ -0,0 +1,45 @@
+package io.github.johneliud.media_service.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestLogSamplerTest {
+
+    private final RequestLogSampler sampler =
+            new RequestLogSampler(1, List.of("get-media:10"), Duration.ofMillis(500));
+
+    @Test
+    void shouldLog_SampledEndpoint_LogsOneInN() {
+        long logged = IntStream.range(0, 100)
+                .filter(i -> sampler.shouldLog("get-media", Duration.ofMillis(1).toNanos()))
+                .count();
+
+        assertEquals(10, logged);
+    }
+
+    @Test
+    void shouldLog_UnconfiguredEndpoint_UsesDefaultRate() {
+        assertTrue(sampler.shouldLog("delete-media", 0));
+        assertTrue(sampler.shouldLog("delete-media", 0));
+    }
+
+    @Test
+    void shouldLog_SlowRequests_AlwaysLogged() {
+        sampler.shouldLog("get-media", 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(sampler.shouldLog("get-media", Duration.ofSeconds(1).toNanos()));
+        }
+    }
+
+    @Test
+    void constructor_MalformedRate_ThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RequestLogSampler(1, List.of("get-media"), Duration.ofMillis(500)));
+    }
+}
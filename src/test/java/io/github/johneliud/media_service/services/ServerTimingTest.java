@@ -0,0 +1,55 @@
+package io.github.johneliud.media_service.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingTest {
+
+    @AfterEach
+    void tearDown() {
+        ServerTiming.end();
+    }
+
+    @Test
+    void start_WithoutActiveRequest_IsNoOp() {
+        try (ServerTiming.Stage stage = ServerTiming.start("db")) {
+            assertNotNull(stage);
+        }
+
+        assertFalse(ServerTiming.isActive());
+        assertNull(ServerTiming.header());
+    }
+
+    @Test
+    void header_ListsStagesInOrderWithTotal() {
+        ServerTiming.begin();
+
+        try (ServerTiming.Stage stage = ServerTiming.start("db")) {
+            // timed work
+        }
+        try (ServerTiming.Stage stage = ServerTiming.start("disk-read")) {
+            // timed work
+        }
+
+        String header = ServerTiming.header();
+        assertTrue(header.matches("db;dur=\\d+\\.\\d, disk-read;dur=\\d+\\.\\d, total;dur=\\d+\\.\\d"), header);
+    }
+
+    @Test
+    void header_RepeatedStagesAccumulate() throws Exception {
+        ServerTiming.begin();
+
+        for (int i = 0; i < 2; i++) {
+            try (ServerTiming.Stage stage = ServerTiming.start("db")) {
+                Thread.sleep(5);
+            }
+        }
+
+        String header = ServerTiming.header();
+        double db = Double.parseDouble(header.substring("db;dur=".length(), header.indexOf(',')));
+        assertTrue(db >= 10.0, header);
+        assertEquals(1, header.split("db;").length - 1);
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.johneliud.media_service.services;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignedUrlServiceTest {
+
+    private static final String SECRET = "testSecretKeyForTestingPurposeOnly123456";
+
+    private final SignedUrlService service =
+            new SignedUrlService(true, "STREAM", SECRET, Duration.ofHours(1), "/media-files");
+
+    @Test
+    void sign_ProducesUrlTheProxyAccepts() throws Exception {
+        SignedUrlService.SignedUrl signed = service.sign("abc.png");
+
+        assertTrue(signed.url().startsWith("/media-files/abc.png?expires="));
+        assertTrue(signed.expiresAt().isAfter(Instant.now()));
+        assertTrue(proxyAccepts("/media-files/abc.png", signed.expiresAt().getEpochSecond(), signature(signed.url())));
+    }
+
+    @Test
+    void sign_TamperedPathOrExpiry_IsRejectedByProxy() throws Exception {
+        SignedUrlService.SignedUrl signed = service.sign("abc.png");
+        String signature = signature(signed.url());
+        long expires = signed.expiresAt().getEpochSecond();
+
+        assertFalse(proxyAccepts("/media-files/other.png", expires, signature));
+        assertFalse(proxyAccepts("/media-files/abc.png", expires + 3600, signature));
+    }
+
+    @Test
+    void sign_ExpiredUrl_IsRejectedByProxy() throws Exception {
+        SignedUrlService expired = new SignedUrlService(true, "STREAM", SECRET, Duration.ofSeconds(-10), "/media-files");
+        SignedUrlService.SignedUrl signed = expired.sign("abc.png");
+
+        assertFalse(proxyAccepts("/media-files/abc.png", signed.expiresAt().getEpochSecond(), signature(signed.url())));
+    }
+
+    @Test
+    void sign_Disabled_ThrowsException() {
+        SignedUrlService disabled = new SignedUrlService(false, "STREAM", "", Duration.ofHours(1), "/media-files");
+
+        assertThrows(IllegalArgumentException.class, () -> disabled.sign("abc.png"));
+    }
+
+    @Test
+    void constructor_ShortSecret_IsRejectedOnlyWhenEnabled() {
+        assertThrows(IllegalStateException.class,
+                () -> new SignedUrlService(true, "STREAM", "short", Duration.ofHours(1), "/media-files"));
+        assertThrows(IllegalStateException.class,
+                () -> new SignedUrlService(false, "X_ACCEL_REDIRECT", "", Duration.ofHours(1), "/media-files"));
+        assertDoesNotThrow(() -> new SignedUrlService(false, "STREAM", "", Duration.ofHours(1), "/media-files"));
+    }
+
+    // Reference for the proxy-side check documented in the README
+    private boolean proxyAccepts(String path, long expires, String signature) throws Exception {
+        if (Instant.now().getEpochSecond() > expires) {
+            return false;
+        }
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String expected = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(mac.doFinal((path + ":" + expires).getBytes(StandardCharsets.UTF_8)));
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII), signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String signature(String url) {
+        return url.substring(url.indexOf("signature=") + "signature=".length());
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.johneliud.media_service.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_ConcurrentCallers_ShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 20; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("media123", () -> {
+                    loads.incrementAndGet();
+                    awaitQuietly(release);
+                    return "loaded";
+                })));
+            }
+            // Let every caller reach the in-flight load before it completes
+            while (loads.get() == 0) {
+                Thread.onSpinWait();
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void execute_FailedLoad_PropagatesToWaitersAndIsNotRemembered() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("media123", () -> {
+                loads.incrementAndGet();
+                awaitQuietly(release);
+                throw new IllegalArgumentException("Media not found");
+            }));
+            while (singleFlight.inFlight() == 0) {
+                Thread.onSpinWait();
+            }
+            Future<String> follower = executor.submit(() -> singleFlight.execute("media123", () -> "unexpected"));
+            Thread.sleep(100);
+            release.countDown();
+
+            ExecutionException leaderFailure = assertThrows(ExecutionException.class, leader::get);
+            assertInstanceOf(IllegalArgumentException.class, leaderFailure.getCause());
+            ExecutionException followerFailure = assertThrows(ExecutionException.class, follower::get);
+            assertEquals("Media not found", followerFailure.getCause().getMessage());
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals("retried", singleFlight.execute("media123", () -> "retried"));
+    }
+
+    @Test
+    void execute_DifferentKeys_LoadIndependently() {
+        assertEquals("a", singleFlight.execute("media1", () -> "a"));
+        assertEquals("b", singleFlight.execute("media1.webp", () -> "b"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
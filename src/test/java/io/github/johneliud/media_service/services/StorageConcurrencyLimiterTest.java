@@ -0,0 +1,91 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.exception.StorageOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.github.johneliud.media_service.services.StorageConcurrencyLimiter.Operation.READ;
+import static io.github.johneliud.media_service.services.StorageConcurrencyLimiter.Operation.WRITE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void acquire_WritesShedBeforeReads() {
+        StorageConcurrencyLimiter limiter = new StorageConcurrencyLimiter(
+                meterRegistry, 10, 1, 100, Duration.ofSeconds(10), 0.5);
+
+        List<StorageConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            permits.add(limiter.acquire(WRITE));
+        }
+
+        assertThrows(StorageOverloadedException.class, () -> limiter.acquire(WRITE));
+        for (int i = 0; i < 5; i++) {
+            permits.add(limiter.acquire(READ));
+        }
+        assertThrows(StorageOverloadedException.class, () -> limiter.acquire(READ));
+
+        assertEquals(1.0, meterRegistry.get("media.storage.shed").tag("operation", "write").counter().count());
+        assertEquals(1.0, meterRegistry.get("media.storage.shed").tag("operation", "read").counter().count());
+        permits.forEach(StorageConcurrencyLimiter.Permit::close);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void close_SlowOperation_DecreasesLimit() throws Exception {
+        StorageConcurrencyLimiter limiter = new StorageConcurrencyLimiter(
+                meterRegistry, 20, 4, 100, Duration.ofMillis(1), 0.7);
+
+        Thread.sleep(5);
+        StorageConcurrencyLimiter.Permit permit = limiter.acquire(READ);
+        Thread.sleep(5);
+        permit.close();
+
+        assertEquals(18.0, limiter.getLimit(), 0.001);
+    }
+
+    @Test
+    void close_FastOperationsUnderLoad_IncreaseLimit() {
+        StorageConcurrencyLimiter limiter = new StorageConcurrencyLimiter(
+                meterRegistry, 2, 1, 100, Duration.ofSeconds(10), 1.0);
+
+        StorageConcurrencyLimiter.Permit first = limiter.acquire(READ);
+        StorageConcurrencyLimiter.Permit second = limiter.acquire(READ);
+        second.close();
+        first.close();
+
+        assertTrue(limiter.getLimit() > 2.0);
+    }
+
+    @Test
+    void close_FastOperationsWhileIdle_KeepLimit() {
+        StorageConcurrencyLimiter limiter = new StorageConcurrencyLimiter(
+                meterRegistry, 10, 1, 100, Duration.ofSeconds(10), 1.0);
+
+        limiter.acquire(READ).close();
+
+        assertEquals(10.0, limiter.getLimit(), 0.001);
+    }
+
+    @Test
+    void close_UnsampledSlowOperation_KeepsLimit() throws Exception {
+        StorageConcurrencyLimiter limiter = new StorageConcurrencyLimiter(
+                meterRegistry, 20, 4, 100, Duration.ofMillis(1), 0.7);
+
+        Thread.sleep(5);
+        StorageConcurrencyLimiter.Permit permit = limiter.acquireUnsampled(WRITE);
+        assertEquals(1, limiter.getInFlight());
+        Thread.sleep(5);
+        permit.close();
+
+        assertEquals(20.0, limiter.getLimit(), 0.001);
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.models.Media;
+import io.github.johneliud.media_service.models.StorageUsage;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StorageUsageServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private StorageUsageService storageUsageService;
+
+    @BeforeEach
+    void setUp() {
+        storageUsageService = new StorageUsageService(mongoTemplate, DataSize.ofKilobytes(10), Duration.ofMinutes(1), false);
+    }
+
+    private Media media(long size) {
+        Media media = new Media();
+        media.setId("media123");
+        media.setSellerId("seller123");
+        media.setProductId("product123");
+        media.setFileSize(size);
+        return media;
+    }
+
+    @Test
+    void checkQuota_UnderQuota_Passes() {
+        when(mongoTemplate.findById("seller:seller123", StorageUsage.class))
+                .thenReturn(new StorageUsage("seller:seller123", "seller", "seller123", null, 4096, 2, Instant.now()));
+
+        assertDoesNotThrow(() -> storageUsageService.checkQuota("seller123", 4096));
+    }
+
+    @Test
+    void checkQuota_OverQuota_ThrowsException() {
+        when(mongoTemplate.findById("seller:seller123", StorageUsage.class))
+                .thenReturn(new StorageUsage("seller:seller123", "seller", "seller123", null, 8192, 4, Instant.now()));
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            storageUsageService.checkQuota("seller123", 4096);
+        });
+        assertEquals("Storage quota exceeded", exception.getMessage());
+    }
+
+    @Test
+    void recordUpload_UpdatesStoredAndCachedCounters() {
+        assertEquals(0, storageUsageService.getSellerUsage("seller123").getBytes());
+
+        storageUsageService.recordUpload(media(2048));
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).upsert(queries.capture(), updates.capture(), eq(StorageUsage.class));
+        assertEquals("seller:seller123", queries.getAllValues().get(0).getQueryObject().get("id"));
+        assertEquals("product:product123", queries.getAllValues().get(1).getQueryObject().get("id"));
+        assertEquals(new Document("bytes", 2048L).append("objects", 1L),
+                updates.getValue().getUpdateObject().get("$inc"));
+
+        // Served from the in-memory counters without another lookup
+        assertEquals(2048, storageUsageService.getSellerUsage("seller123").getBytes());
+        assertEquals(1, storageUsageService.getSellerUsage("seller123").getObjects());
+        verify(mongoTemplate, times(1)).findById("seller:seller123", StorageUsage.class);
+    }
+
+    @Test
+    void recordDelete_StoreUnavailable_DoesNotFail() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(StorageUsage.class)))
+                .thenThrow(new RuntimeException("connection refused"));
+
+        assertDoesNotThrow(() -> storageUsageService.recordDelete(media(2048)));
+    }
+
+    @Test
+    void reconcile_DriftedCounters_AreCorrected() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Media.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(
+                        new Document("_id", "seller123").append("sellerId", "seller123")
+                                .append("bytes", 3000L).append("objects", 3)), new Document()))
+                .thenReturn(new AggregationResults<>(List.of(
+                        new Document("_id", "product123").append("sellerId", "seller123")
+                                .append("bytes", 3000L).append("objects", 3)), new Document()));
+        StorageUsage sellerDrifted = new StorageUsage("seller:seller123", "seller", "seller123", null, 1000, 1, Instant.now());
+        StorageUsage productAccurate = new StorageUsage("product:product123", "product", "seller123", "product123", 3000, 3, Instant.now());
+        StorageUsage productGone = new StorageUsage("product:old", "product", "seller123", "old", 500, 1, Instant.now());
+        when(mongoTemplate.find(any(Query.class), eq(StorageUsage.class)))
+                .thenReturn(List.of(sellerDrifted))
+                .thenReturn(List.of(productAccurate, productGone));
+
+        assertEquals(2, storageUsageService.reconcile());
+
+        ArgumentCaptor<StorageUsage> saved = ArgumentCaptor.forClass(StorageUsage.class);
+        verify(mongoTemplate).save(saved.capture());
+        assertEquals("seller:seller123", saved.getValue().getId());
+        assertEquals(3000, saved.getValue().getBytes());
+        assertEquals(3, saved.getValue().getObjects());
+        verify(mongoTemplate).remove(productGone);
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.johneliud.media_service.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StructuredTasksTest {
+
+    @AfterEach
+    void tearDown() {
+        ServerTiming.end();
+    }
+
+    @Test
+    void fork_IndependentTasks_RunConcurrently() {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+
+        try (StructuredTasks tasks = StructuredTasks.open()) {
+            Supplier<String> first = tasks.fork(() -> {
+                bothRunning.countDown();
+                return bothRunning.await(5, TimeUnit.SECONDS) ? "media" : "timeout";
+            });
+            Supplier<Boolean> second = tasks.fork(() -> {
+                bothRunning.countDown();
+                return bothRunning.await(5, TimeUnit.SECONDS);
+            });
+            tasks.joinUninterruptibly();
+
+            assertEquals("media", first.get());
+            assertTrue(second.get());
+        }
+    }
+
+    @Test
+    void join_FailedTask_CancelsSiblingsAndRethrows() {
+        AtomicBoolean interrupted = new AtomicBoolean();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            try (StructuredTasks tasks = StructuredTasks.open()) {
+                tasks.fork(() -> {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.set(true);
+                    }
+                });
+                tasks.fork(() -> {
+                    throw new IllegalArgumentException("Media not found");
+                });
+                tasks.joinUninterruptibly();
+            }
+        });
+
+        assertEquals("Media not found", exception.getMessage());
+        // close() waited for the cancelled sibling
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    void fork_ActiveRequest_StagesRecordedOnSubtasks() {
+        ServerTiming.begin();
+
+        try (StructuredTasks tasks = StructuredTasks.open()) {
+            tasks.fork(() -> {
+                try (ServerTiming.Stage stage = ServerTiming.start("db")) {
+                    // timed work
+                }
+            });
+            tasks.joinUninterruptibly();
+        }
+
+        assertTrue(ServerTiming.header().startsWith("db;dur="), ServerTiming.header());
+    }
+}
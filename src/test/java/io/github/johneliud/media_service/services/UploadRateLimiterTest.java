@@ -0,0 +1,104 @@
+package io.github.johneliud.media_service.services;
+
+import io.github.johneliud.media_service.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void acquireUpload_BurstExhausted_ThrowsWithRetryAfter() {
+        UploadRateLimiter limiter = new UploadRateLimiter(meterRegistry, 0.1, 3, 10);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquireUpload("seller123").close();
+        }
+
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquireUpload("seller123"));
+        assertTrue(exception.getRetryAfterSeconds() >= 1 && exception.getRetryAfterSeconds() <= 10);
+        assertEquals(1.0, meterRegistry.get("media.upload.throttled").tag("reason", "rate").counter().count());
+    }
+
+    @Test
+    void acquireUpload_SellersAreLimitedIndependently() {
+        UploadRateLimiter limiter = new UploadRateLimiter(meterRegistry, 0.1, 1, 10);
+
+        limiter.acquireUpload("seller123").close();
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquireUpload("seller123"));
+        assertDoesNotThrow(() -> limiter.acquireUpload("seller456").close());
+    }
+
+    @Test
+    void acquireTransfer_ConcurrencyCapReleasedOnClose() {
+        UploadRateLimiter limiter = new UploadRateLimiter(meterRegistry, 100, 100, 2);
+
+        UploadRateLimiter.Permit first = limiter.acquireTransfer("seller123");
+        UploadRateLimiter.Permit second = limiter.acquireTransfer("seller123");
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquireTransfer("seller123"));
+        assertEquals(2.0, meterRegistry.get("media.upload.in_flight").gauge().value());
+
+        first.close();
+        first.close();
+        assertDoesNotThrow(() -> limiter.acquireTransfer("seller123").close());
+        second.close();
+        assertEquals(0.0, meterRegistry.get("media.upload.in_flight").gauge().value());
+    }
+
+    @Test
+    void evictIdleSellers_RemovesOnlyIdleState() {
+        UploadRateLimiter limiter = new UploadRateLimiter(meterRegistry, 1_000_000, 1, 2);
+
+        limiter.acquireUpload("idleSeller").close();
+        UploadRateLimiter.Permit busy = limiter.acquireTransfer("busySeller");
+
+        limiter.evictIdleSellers();
+
+        assertEquals(1, limiter.trackedSellers());
+        busy.close();
+    }
+
+    @Test
+    void evictIdleSellers_ConcurrentWithAcquire_NeverExceedsCap() throws Exception {
+        UploadRateLimiter limiter = new UploadRateLimiter(meterRegistry, 1_000_000, 1, 1);
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger maxHeld = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        Thread evictor = Thread.ofPlatform().start(() -> {
+            while (running.get()) {
+                limiter.evictIdleSellers();
+            }
+        });
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int worker = 0; worker < 4; worker++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        try (UploadRateLimiter.Permit ignored = limiter.acquireTransfer("seller")) {
+                            maxHeld.accumulateAndGet(held.incrementAndGet(), Math::max);
+                            held.decrementAndGet();
+                        } catch (RateLimitExceededException rejected) {
+                            // another worker holds the only slot
+                        }
+                    }
+                });
+            }
+        } finally {
+            running.set(false);
+            evictor.join();
+        }
+
+        assertEquals(1, maxHeld.get());
+    }
+}